@@ -8,7 +8,17 @@ public class ConcurrencyHandler {
 
     // Constructor for initializing the thread pool
     public ConcurrencyHandler(int threadPoolSize) {
-        this.executorService = Executors.newFixedThreadPool(threadPoolSize);
+        this(Executors.newFixedThreadPool(threadPoolSize));
+    }
+
+    // Constructor wrapping an existing executor (used by the factory methods below)
+    private ConcurrencyHandler(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    // Handler that starts a new virtual thread per task, for blocking I/O such as HTTP fetches
+    public static ConcurrencyHandler virtualThreads() {
+        return new ConcurrencyHandler(Executors.newVirtualThreadPerTaskExecutor());
     }
 
     // Expose the ExecutorService for external use
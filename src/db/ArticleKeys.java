@@ -0,0 +1,66 @@
+package db;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Fixed-width lookup keys for the Articles table.
+ * Encapsulation: titles are looked up through the SHA-256 of their UTF-8 bytes (a BINARY(32) column with a unique
+ * index) instead of comparing free text, and URLs through a canonical form so that tracking parameters, fragments,
+ * default ports and host case do not make the same page look new.
+ */
+public class ArticleKeys {
+
+    // SHA-256 of the title; also used by the schema migration to backfill existing rows
+    public static byte[] titleHash(String title) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(title.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Every JRE ships SHA-256
+        }
+    }
+
+    /**
+     * Canonical form of a page URL: lower-case scheme and host, no default port, no fragment, no utm_* / fbclid /
+     * gclid parameters, and no trailing slash on non-root paths. Unparseable URLs are returned trimmed.
+     */
+    public static String canonicalUrl(String url) {
+        if (url == null) return null;
+        try {
+            URI uri = new URI(url.trim());
+            if (uri.getScheme() == null || uri.getHost() == null) return url.trim();
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            if ((port == 80 && scheme.equals("http")) || (port == 443 && scheme.equals("https"))) port = -1;
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            if (path.length() > 1 && path.endsWith("/")) path = path.substring(0, path.length() - 1);
+
+            StringBuilder canonical = new StringBuilder(scheme).append("://").append(uri.getHost().toLowerCase(Locale.ROOT));
+            if (port != -1) canonical.append(':').append(port);
+            canonical.append(path);
+            String query = canonicalQuery(uri.getRawQuery());
+            if (!query.isEmpty()) canonical.append('?').append(query);
+            return canonical.toString();
+        } catch (URISyntaxException e) {
+            return url.trim();
+        }
+    }
+
+    // Drops tracking parameters and keeps the remaining ones in their original order
+    private static String canonicalQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) return "";
+        List<String> kept = new ArrayList<>();
+        for (String parameter : rawQuery.split("&")) {
+            String name = parameter.split("=", 2)[0].toLowerCase(Locale.ROOT);
+            if (parameter.isEmpty() || name.startsWith("utm_") || name.equals("fbclid") || name.equals("gclid")) continue;
+            kept.add(parameter);
+        }
+        return String.join("&", kept);
+    }
+}
@@ -0,0 +1,93 @@
+package db;
+
+import model.ContentScorer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sink that collects article category scores and writes them to article_classification in one go.
+ * Encapsulation: callers add the scores of one article or a whole page of articles, and flush() sends every row
+ * as a single batched upsert on one connection inside one transaction. With rewriteBatchedStatements enabled on
+ * the connection URL, the connector rewrites the batch into multi-row INSERT ... ON DUPLICATE KEY UPDATE statements.
+ * Thread-safe: scraper tasks can add to a shared sink concurrently.
+ */
+public class ClassificationWriter {
+    private static final String UPSERT_SQL = "INSERT INTO article_classification (article_id, category, keyword_count) " +
+            "VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE keyword_count = VALUES(keyword_count)";
+
+    // One pending row of the article_classification table
+    private record Row(int articleId, String category, int keywordCount) {
+    }
+
+    private final List<Row> pending = new ArrayList<>();
+
+    // flush() result when the rows could not be written
+    public static final int FAILED = -1;
+
+    // Queues all category scores of one article
+    public synchronized void add(int articleId, Map<String, Integer> scores) {
+        for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+            pending.add(new Row(articleId, entry.getKey(), entry.getValue()));
+        }
+    }
+
+    public synchronized int pendingRows() {
+        return pending.size();
+    }
+
+    /**
+     * Writes every queued row in a single transaction. On failure the transaction is rolled back and the rows
+     * are dropped, matching the fire-and-forget behaviour of the single-row writer.
+     *
+     * @return the number of rows written (0 if nothing was pending), or FAILED if the transaction was rolled back
+     */
+    public int flush() {
+        List<Row> rows;
+        synchronized (this) {
+            if (pending.isEmpty()) return 0;
+            rows = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        try (Connection conn = DBConnection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+                for (Row row : rows) {
+                    pstmt.setInt(1, row.articleId());
+                    pstmt.setString(2, row.category());
+                    pstmt.setInt(3, row.keywordCount());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+                updateScorer(rows);
+                return rows.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return FAILED;
+        }
+    }
+
+    // Keeps the in-memory content vectors in step with the committed rows
+    private static void updateScorer(List<Row> rows) {
+        Map<Integer, Map<String, Integer>> byArticle = new HashMap<>();
+        for (Row row : rows) {
+            byArticle.computeIfAbsent(row.articleId(), id -> new HashMap<>()).put(row.category(), row.keywordCount());
+        }
+        byArticle.forEach(ContentScorer::put);
+    }
+}
@@ -0,0 +1,237 @@
+package db;
+
+import com.mysql.cj.jdbc.MysqlConnectionPoolDataSource;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+import javax.sql.PooledConnection;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small JDBC connection pool built on the connector's MysqlConnectionPoolDataSource / MysqlPooledConnection.
+ * Encapsulation: callers get an ordinary java.sql.Connection; closing it hands the physical connection back to
+ * the pool (through the ConnectionEventListener callback) instead of tearing down the TCP session.
+ *
+ * Features: min/max size, idle eviction down to the minimum size, validation on borrow and borrow-latency metrics.
+ */
+public class ConnectionPool {
+    private final MysqlConnectionPoolDataSource dataSource;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final int validationTimeoutSeconds;
+
+    private final Semaphore permits;                                     // One permit per connection that may be handed out
+    private final BlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>(); // Most recently returned first
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed = false;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowNanosTotal = new AtomicLong();
+    private final AtomicLong borrowNanosMax = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+
+    // Snapshot of the pool metrics (borrow latencies in microseconds)
+    public record Stats(int total, int idle, int active, long borrows, double avgBorrowMicros, long maxBorrowMicros,
+                        long borrowTimeouts, long created, long destroyed, long validationFailures) {
+    }
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long idleTimeoutMillis, long borrowTimeoutMillis, int validationTimeoutSeconds) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.dataSource = new MysqlConnectionPoolDataSource();
+        this.dataSource.setURL(url);
+        this.dataSource.setUser(user);
+        this.dataSource.setPassword(password);
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.permits = new Semaphore(maxSize, true);
+
+        // Daemon thread so an idle pool never keeps the JVM alive
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, reusing an idle physical connection when one passes validation.
+     * Blocks up to the borrow timeout when maxSize connections are already in use.
+     *
+     * @throws SQLException if the pool is closed, exhausted past the timeout, or a new connection fails
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                Connection handle = entry.checkout();
+                if (handle != null) {
+                    recordBorrow(start);
+                    return handle;
+                }
+            }
+            // No reusable idle connection: open a new physical one (the permit bounds the total)
+            entry = openEntry();
+            Connection handle = entry.checkout();
+            if (handle == null) throw new SQLException("Newly opened connection failed validation");
+            recordBorrow(start);
+            return handle;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public Stats getStats() {
+        long borrows = borrowCount.get();
+        int total = totalConnections.get();
+        int idleCount = idle.size();
+        return new Stats(total, idleCount, total - idleCount, borrows,
+                borrows == 0 ? 0.0 : borrowNanosTotal.get() / 1000.0 / borrows, borrowNanosMax.get() / 1000,
+                borrowTimeouts.get(), created.get(), destroyed.get(), validationFailures.get());
+    }
+
+    // Closes every idle connection and refuses new borrows; connections in use are closed when returned
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            entry.destroy();
+        }
+    }
+
+    private void recordBorrow(long start) {
+        long elapsed = System.nanoTime() - start;
+        borrowCount.incrementAndGet();
+        borrowNanosTotal.addAndGet(elapsed);
+        borrowNanosMax.accumulateAndGet(elapsed, Math::max);
+    }
+
+    private PooledEntry openEntry() throws SQLException {
+        PooledEntry entry = new PooledEntry(dataSource.getPooledConnection());
+        totalConnections.incrementAndGet();
+        created.incrementAndGet();
+        return entry;
+    }
+
+    // Evicts connections idle for longer than the timeout (oldest first), then tops the pool back up to minSize
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledEntry> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext() && totalConnections.get() > minSize) {
+            PooledEntry entry = oldestFirst.next();
+            if (now - entry.lastReturned >= idleTimeoutMillis && idle.remove(entry)) {
+                entry.destroy();
+            }
+        }
+        while (!closed && totalConnections.get() < minSize && permits.tryAcquire()) {
+            try {
+                PooledEntry entry = openEntry();
+                entry.lastReturned = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * One physical connection. It listens to its own close/error events: a closed logical handle returns the entry
+     * to the idle list, a fatal error discards it.
+     */
+    private class PooledEntry implements ConnectionEventListener {
+        private final PooledConnection pooledConnection;
+        private final AtomicBoolean inUse = new AtomicBoolean(false);
+        private final AtomicBoolean discarded = new AtomicBoolean(false);
+        private volatile long lastReturned = System.currentTimeMillis();
+
+        PooledEntry(PooledConnection pooledConnection) {
+            this.pooledConnection = pooledConnection;
+            pooledConnection.addConnectionEventListener(this);
+        }
+
+        // Hands out a fresh logical handle after validating the physical connection, or destroys it and returns null.
+        // The entry is only marked in use once validated, so error events fired during validation are ignored here.
+        Connection checkout() {
+            try {
+                Connection handle = pooledConnection.getConnection();
+                if (handle.isValid(validationTimeoutSeconds)) {
+                    inUse.set(true);
+                    return handle;
+                }
+            } catch (SQLException e) {
+                // Fall through: treated as a failed validation
+            }
+            validationFailures.incrementAndGet();
+            destroy();
+            return null;
+        }
+
+        @Override
+        public void connectionClosed(ConnectionEvent event) {
+            if (!inUse.compareAndSet(true, false)) return; // Ignore duplicate close events
+            lastReturned = System.currentTimeMillis();
+            if (closed) {
+                destroy();
+            } else {
+                idle.offerFirst(this);
+            }
+            permits.release();
+        }
+
+        @Override
+        public void connectionErrorOccurred(ConnectionEvent event) {
+            if (!inUse.compareAndSet(true, false)) return;
+            destroy();
+            permits.release();
+        }
+
+        void destroy() {
+            if (!discarded.compareAndSet(false, true)) return;
+            pooledConnection.removeConnectionEventListener(this);
+            try {
+                pooledConnection.close();
+            } catch (SQLException e) {
+                // The physical connection is being discarded anyway
+            }
+            totalConnections.decrementAndGet();
+            destroyed.incrementAndGet();
+        }
+    }
+}
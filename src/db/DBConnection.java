@@ -1,40 +1,94 @@
 package db;
 
+import model.ArticleDirectory;
+import model.ContentScorer;
+import model.NearDuplicateIndex;
+
 import java.sql.*;
-import java.util.Map;
+import java.util.*;
 
-import static model.Article.*;
 import static scraper.Webscraper.*;
 
 public class DBConnection {
     // Constants for database connection details - Encapsulation: hiding the internal implementation of the connection
-    private static final String URL = "jdbc:mysql://localhost:3306/news_scraper";
+    // rewriteBatchedStatements lets the connector send a JDBC batch as multi-row statements (one round trip per batch)
+    // useAffectedRows: an upsert that matched an unchanged row reports 0 rather than 1, so 1 always means "inserted"
+    private static final String URL = "jdbc:mysql://localhost:3306/news_scraper?rewriteBatchedStatements=true&useAffectedRows=true";
     private static final String USER = "root";
     private static final String PASSWORD = "amna";
 
+    // Connection pool settings
+    private static final int POOL_MIN_SIZE = 2;
+    private static final int POOL_MAX_SIZE = 20;
+    private static final long POOL_IDLE_TIMEOUT_MS = 5 * 60 * 1000;  // Idle connections above the minimum are closed after 5 minutes
+    private static final long POOL_BORROW_TIMEOUT_MS = 10 * 1000;    // Give up waiting for a free connection after 10 seconds
+    private static final int POOL_VALIDATION_TIMEOUT_S = 2;          // Ping timeout when validating a connection on borrow
+
+    // Shared pool of physical connections, created on first use
+    private static volatile ConnectionPool pool;
+
     /**
      * Establishes and returns a database connection.
      * Encapsulation: Abstracts the connection logic from the rest of the program.
+     * The connection is a pooled handle: closing it (e.g. through try-with-resources) returns it to the pool.
      *
      * @return Connection object for interacting with the database
      * @throws SQLException if the connection fails
      */
     public static Connection getConnection() throws SQLException {
-        // Using DriverManager to establish a connection to the database
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return getPool().getConnection();
+    }
+
+    // Returns the shared connection pool, creating it on first use
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DBConnection.class) {
+                current = pool;
+                if (current == null) {
+                    current = new ConnectionPool(URL, USER, PASSWORD, POOL_MIN_SIZE, POOL_MAX_SIZE,
+                            POOL_IDLE_TIMEOUT_MS, POOL_BORROW_TIMEOUT_MS, POOL_VALIDATION_TIMEOUT_S);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Closes the pooled connections (called on shutdown)
+    public static synchronized void shutdownPool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
     }
 
     /**
-     * Clears all existing articles from the Articles table.
+     * Clears all existing articles from the Articles table, together with their classification, interaction, alias and
+     * recommendation rows, in one transaction.
      * Synchronization ensures that this method can only be executed by one thread at a time.
      * Thread safety is achieved using synchronized keyword.
      */
     public synchronized static void clearExistingNews() {
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement()) {
-            // SQL query to delete all articles
-            String query = "DELETE FROM Articles";
-            stmt.executeUpdate(query);  // Use executeUpdate for data modification queries
+        try (Connection conn = DBConnection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String table : ARTICLE_DEPENDENT_TABLES) {
+                    stmt.executeUpdate("DELETE FROM " + table);
+                }
+                stmt.executeUpdate("DELETE FROM user_recommendations"); // Precomputed lists of the deleted articles
+                stmt.executeUpdate("DELETE FROM Articles");  // Use executeUpdate for data modification queries
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback(); // Nothing was deleted, so the in-memory indexes stay as they are
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            ArticleDirectory.clear();   // The id/title directory now mirrors an empty table
+            NearDuplicateIndex.clear(); // And so does the near-duplicate index
+            ContentScorer.clear();      // And the content vectors, now that article_classification is empty too
             //System.out.println("Deleted old article data");
         } catch (Exception e) {
             e.printStackTrace();// Exception handling using try-catch block
@@ -50,24 +104,25 @@ public class DBConnection {
      * @return the article ID if saved successfully, or -1 if something went wrong
      */
     public static int saveArticleToDB(String title, String content) {
-        // SQL query to insert article into the Articles table
-        String articleSql = "INSERT INTO Articles (title, content) VALUES (?, ?)";
+        // SQL query to insert article into the Articles table; an article with the same title is reused, not duplicated
+        String articleSql = "INSERT INTO Articles (title, title_hash, content) VALUES (?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)";
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(articleSql, Statement.RETURN_GENERATED_KEYS)) {
             // Set the article title and content using parameterized queries (prevents SQL injection)
             pstmt.setString(1, title);
-            pstmt.setString(2, content);
+            pstmt.setBytes(2, ArticleKeys.titleHash(title));
+            pstmt.setString(3, content);
 
-            // Execute the update
-            int affectedRows = pstmt.executeUpdate();
+            // Execute the update (0 affected rows when the title already existed and nothing changed)
+            pstmt.executeUpdate();
 
-            // Check if insertion was successful
-            if (affectedRows > 0) {
-                // Retrieve the generated key (article ID) after successful insertion
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        return generatedKeys.getInt(1); // Return the generated article ID
-                    }
+            // Retrieve the generated key (article ID), or the existing ID through LAST_INSERT_ID(id)
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    int articleId = generatedKeys.getInt(1);
+                    ArticleDirectory.put(articleId, title); // Keep the id/title directory in step with the table
+                    return articleId; // Return the generated article ID
                 }
             }
         } catch (SQLException e) {
@@ -76,22 +131,372 @@ public class DBConnection {
         return -1; // Return -1 if something went wrong, indicating failure
     }
 
+    /**
+     * Saves a scraped article together with its source URL, content fingerprint and SimHash signature.
+     * The insert is a single atomic upsert keyed on the unique title hash and canonical URL: if either already
+     * exists, no row is added and the stored article's ID is returned instead (through LAST_INSERT_ID(id)), so
+     * concurrent scrapes of the same story cannot create two rows and no lookup is needed beforehand.
+     * A stored article that only shares the headline (it has a different canonical URL) is a different story: the page
+     * is then stored as an article of its own that does not claim the title hash, and the stored one is left alone.
+     *
+     * @param simhash the near-duplicate signature, or 0 if the text was too short to have one
+     * @return the article ID and whether it was newly inserted (ID -1 if something went wrong)
+     */
+    public static SavedArticle saveArticleToDB(String title, String content, String url, String contentHash, long simhash) {
+        try (Connection conn = DBConnection.getConnection()) {
+            SavedArticle saved = upsertArticle(conn, title, ArticleKeys.titleHash(title), content, url, contentHash, simhash);
+            if (!saved.inserted() && !isSamePage(conn, saved.articleId(), url)) {
+                saved = upsertArticle(conn, title, null, content, url, contentHash, simhash);
+            }
+            if (saved.inserted()) {
+                ArticleDirectory.put(saved.articleId(), title); // Keep the id/title directory in step with the table
+                NearDuplicateIndex.put(saved.articleId(), simhash);
+            }
+            return saved;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new SavedArticle(-1, false);
+    }
+
+    // One atomic upsert; titleHash is null for an article that must not claim its headline
+    private static SavedArticle upsertArticle(Connection conn, String title, byte[] titleHash, String content, String url,
+                                              String contentHash, long simhash) throws SQLException {
+        // Only the same page counts as seen again (a headline clash with another page must not keep that one alive)
+        String articleSql = "INSERT INTO Articles (title, title_hash, content, url, canonical_url, content_hash, simhash, " +
+                "fetched_at, last_seen) VALUES (?, ?, ?, ?, ?, ?, ?, NOW(), NOW()) " +
+                "ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id), " +
+                "last_seen = IF(canonical_url IS NULL OR canonical_url = VALUES(canonical_url), NOW(), last_seen)";
+        try (PreparedStatement pstmt = conn.prepareStatement(articleSql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, title);
+            pstmt.setBytes(2, titleHash);
+            pstmt.setString(3, content);
+            pstmt.setString(4, url);
+            pstmt.setString(5, ArticleKeys.canonicalUrl(url));
+            pstmt.setString(6, contentHash);
+            setSimHash(pstmt, 7, simhash);
+            // With useAffectedRows: 1 = new row, 2 = existing row updated, 0 = existing row already current
+            boolean inserted = pstmt.executeUpdate() == 1;
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    return new SavedArticle(generatedKeys.getInt(1), inserted);
+                }
+            }
+        }
+        throw new SQLException("No article id returned for " + url);
+    }
+
+    // Whether a stored article is the page at this URL, or was stored before URLs were recorded (no canonical URL)
+    private static boolean isSamePage(Connection conn, int articleId, String url) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT canonical_url FROM Articles WHERE id = ?")) {
+            pstmt.setInt(1, articleId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) return true;
+                String canonicalUrl = rs.getString(1);
+                return canonicalUrl == null || canonicalUrl.equals(ArticleKeys.canonicalUrl(url));
+            }
+        }
+    }
+
+    /**
+     * Replaces the content of an existing article after a re-fetch found it changed (or filled in its URL and
+     * fingerprint for rows stored before incremental refresh existed).
+     */
+    public static void updateArticleContent(int articleId, String title, String content, String url, String contentHash,
+                                            long simhash) {
+        String sql = "UPDATE Articles SET title = ?, title_hash = ?, content = ?, url = ?, canonical_url = ?, " +
+                "content_hash = ?, simhash = ?, fetched_at = NOW(), last_seen = NOW() WHERE id = ?";
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, title);
+                pstmt.setBytes(2, ArticleKeys.titleHash(title));
+                pstmt.setString(3, content);
+                pstmt.setString(4, url);
+                pstmt.setString(5, ArticleKeys.canonicalUrl(url));
+                pstmt.setString(6, contentHash);
+                setSimHash(pstmt, 7, simhash);
+                pstmt.setInt(8, articleId);
+                pstmt.executeUpdate();
+            } catch (SQLIntegrityConstraintViolationException e) {
+                // The new title or URL already belongs to another article: store the content anyway, and drop the keys
+                // that no longer describe this row (assignments run left to right, so the IFs still see the old values)
+                String withoutKeys = "UPDATE Articles SET title_hash = IF(BINARY title = ?, title_hash, NULL), " +
+                        "canonical_url = IF(url <=> ?, canonical_url, NULL), title = ?, content = ?, url = ?, " +
+                        "content_hash = ?, simhash = ?, fetched_at = NOW(), last_seen = NOW() WHERE id = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(withoutKeys)) {
+                    pstmt.setString(1, title);
+                    pstmt.setString(2, url);
+                    pstmt.setString(3, title);
+                    pstmt.setString(4, content);
+                    pstmt.setString(5, url);
+                    pstmt.setString(6, contentHash);
+                    setSimHash(pstmt, 7, simhash);
+                    pstmt.setInt(8, articleId);
+                    pstmt.executeUpdate();
+                }
+            }
+            ArticleDirectory.put(articleId, title);
+            NearDuplicateIndex.remove(articleId);
+            NearDuplicateIndex.put(articleId, simhash);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Looks up the stored articles for a page of source URLs with a single query on the unique canonical URL index.
+     * URLs merged into another article as near-duplicates are returned as aliases of that article.
+     *
+     * @return URL (as passed in) -> stored article, for the URLs that are already in the database
+     */
+    public static Map<String, StoredArticle> findArticlesByUrls(Collection<String> urls) {
+        Map<String, StoredArticle> found = new HashMap<>();
+        if (urls.isEmpty()) return found;
+        Map<String, List<String>> requested = new HashMap<>(); // Canonical URL -> the spellings asked for
+        for (String url : urls) {
+            requested.computeIfAbsent(ArticleKeys.canonicalUrl(url), key -> new ArrayList<>(1)).add(url);
+        }
+        String placeholders = String.join(",", Collections.nCopies(requested.size(), "?"));
+        String sql = "SELECT id, title, canonical_url, content_hash, fetched_at, FALSE AS alias FROM Articles WHERE canonical_url IN (" + placeholders + ") " +
+                "UNION ALL " +
+                "SELECT al.article_id, al.title, al.url, al.content_hash, al.fetched_at, TRUE FROM article_aliases al " +
+                "JOIN Articles a ON a.id = al.article_id WHERE al.url IN (" + placeholders + ")"; // Aliases of deleted articles are ignored
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (int pass = 0; pass < 2; pass++) {
+                for (String canonicalUrl : requested.keySet()) {
+                    pstmt.setString(index++, canonicalUrl);
+                }
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    for (String url : requested.getOrDefault(rs.getString(3), List.of())) {
+                        StoredArticle article = new StoredArticle(rs.getInt(1), rs.getString(2), url,
+                                rs.getString(4), rs.getTimestamp(5), rs.getBoolean(6));
+                        found.putIfAbsent(url, article); // An article row wins over a stale alias
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return found;
+    }
+
+    /**
+     * Returns the canonical form of every URL the scraper still cares about: stored articles, aliases and links
+     * waiting in the crawl frontier (used to prune the page cache).
+     *
+     * @return the canonical URLs, or null if they could not be read
+     */
+    public static Set<String> findKnownUrls() {
+        String sql = "SELECT url FROM Articles WHERE url IS NOT NULL " +
+                "UNION SELECT url FROM article_aliases " +
+                "UNION SELECT url FROM crawl_frontier";
+        Set<String> urls = new HashSet<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                urls.add(ArticleKeys.canonicalUrl(rs.getString(1)));
+            }
+            return urls;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Records a page as a near-duplicate of an existing article (or refreshes the record after a re-fetch),
+     * so later scrapes of the URL are recognised without inserting a second article.
+     */
+    public static void saveAlias(String url, int articleId, String title, String contentHash) {
+        String sql = "INSERT INTO article_aliases (url, article_id, title, content_hash, fetched_at) VALUES (?, ?, ?, ?, NOW()) " +
+                "ON DUPLICATE KEY UPDATE article_id = VALUES(article_id), title = VALUES(title), " +
+                "content_hash = VALUES(content_hash), fetched_at = NOW()";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, ArticleKeys.canonicalUrl(url));
+            pstmt.setInt(2, articleId);
+            pstmt.setString(3, title);
+            pstmt.setString(4, contentHash);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Forgets a near-duplicate record (the page changed enough to be an article of its own)
+    public static void deleteAlias(String url) {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM article_aliases WHERE url = ?")) {
+            pstmt.setString(1, ArticleKeys.canonicalUrl(url));
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void setSimHash(PreparedStatement pstmt, int index, long simhash) throws SQLException {
+        if (simhash == 0L) {
+            pstmt.setNull(index, Types.BIGINT); // Too short to fingerprint
+        } else {
+            pstmt.setLong(index, simhash);
+        }
+    }
+
+    /**
+     * Looks up a stored article by title (for rows stored before source URLs were recorded), through the unique
+     * title hash index rather than a comparison on the free-text column.
+     *
+     * @return the stored article, or null if there is none (or the lookup failed)
+     */
+    public static StoredArticle findArticleByTitle(String title) {
+        String sql = "SELECT id, title, url, content_hash, fetched_at FROM Articles WHERE title_hash = ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setBytes(1, ArticleKeys.titleHash(title));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new StoredArticle(rs.getInt("id"), rs.getString("title"), rs.getString("url"),
+                            rs.getString("content_hash"), rs.getTimestamp("fetched_at"), false);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Marks articles as still present on the source site (last_seen = now), optionally also as just re-fetched.
+     */
+    public static void touchArticles(Collection<Integer> articleIds, boolean fetched) {
+        if (articleIds.isEmpty()) return;
+        String sql = "UPDATE Articles SET last_seen = NOW()" + (fetched ? ", fetched_at = NOW()" : "") + " WHERE id = ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int articleId : articleIds) {
+                pstmt.setInt(1, articleId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Forgets the content fingerprints of articles whose classification could not be written, so the next fetch
+     * sees them as changed and categorizes them again instead of skipping them as unchanged.
+     */
+    public static void clearContentHashes(Collection<Integer> articleIds) {
+        if (articleIds.isEmpty()) return;
+        String sql = "UPDATE Articles SET content_hash = NULL WHERE id = ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int articleId : articleIds) {
+                pstmt.setInt(1, articleId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Tables whose rows refer to an article by article_id and go with it (there are no foreign keys to cascade)
+    private static final String[] ARTICLE_DEPENDENT_TABLES =
+            {"article_classification", "user_article_interactions", "article_aliases"};
+
+    /**
+     * Deletes scraped articles that have not been seen on the source site for longer than maxAgeHours, together with
+     * their classification, interaction and alias rows. Articles without a last_seen stamp (added by the admin) are kept.
+     *
+     * @return the number of deleted articles
+     */
+    public synchronized static int deleteStaleArticles(int maxAgeHours) {
+        String selectSql = "SELECT id FROM Articles WHERE last_seen < NOW() - INTERVAL ? HOUR";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement select = conn.prepareStatement(selectSql)) {
+            select.setInt(1, maxAgeHours);
+            List<Integer> staleIds = new ArrayList<>();
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    staleIds.add(rs.getInt("id"));
+                }
+            }
+            if (staleIds.isEmpty()) return 0;
+            deleteArticles(conn, staleIds);
+            staleIds.forEach(ArticleDirectory::remove); // Keep the id/title directory in step with the table
+            staleIds.forEach(NearDuplicateIndex::remove);
+            staleIds.forEach(ContentScorer::remove);
+            return staleIds.size();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Deletes articles with their classification, interaction and alias rows in one transaction, and forgets them in
+     * the in-memory indexes.
+     *
+     * @return true if the rows were deleted
+     */
+    public static boolean deleteArticles(List<Integer> articleIds) {
+        try (Connection conn = DBConnection.getConnection()) {
+            deleteArticles(conn, articleIds);
+            articleIds.forEach(ArticleDirectory::remove);
+            articleIds.forEach(NearDuplicateIndex::remove);
+            articleIds.forEach(ContentScorer::remove);
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Deletes the articles and their dependent rows in one transaction
+    private static void deleteArticles(Connection conn, List<Integer> articleIds) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (String table : ARTICLE_DEPENDENT_TABLES) {
+                deleteByArticleId(conn, "DELETE FROM " + table + " WHERE article_id = ?", articleIds);
+            }
+            deleteByArticleId(conn, "DELETE FROM Articles WHERE id = ?", articleIds);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void deleteByArticleId(Connection conn, String sql, List<Integer> articleIds) throws SQLException {
+        try (PreparedStatement delete = conn.prepareStatement(sql)) {
+            for (int articleId : articleIds) {
+                delete.setInt(1, articleId);
+                delete.addBatch();
+            }
+            delete.executeBatch();
+        }
+    }
+
     /**
      * Saves article classifications for the provided article ID.
-     * It uses a Map to store categories and their associated keyword counts.
-     * This method applies the use of OOP principles by utilizing a data structure (Map) to group related data. This could be seen as overloading when you compare how the database is updated versus the article information saving process.
+     * All categories are written as one batched upsert on a single connection, instead of one connection per category.
      *
      * @param articleId The ID of the article
      * @param scores    A Map containing categories and keyword counts for the article classification
      */
     public static void saveArticletoDB2(int articleId, Map<String, Integer> scores) {
-        // Loop through the map containing category names and their keyword counts
-        for (Map.Entry<String, Integer> entry : scores.entrySet()) {
-            String category = entry.getKey();// Key representing the category name
-            int keywordCount = entry.getValue();// Value representing the keyword count for the category
-
-            // Insert or update the classification record in the article_classification table
-            saveArticleClassification(articleId, category, keywordCount);
-        }
+        ClassificationWriter writer = new ClassificationWriter();
+        writer.add(articleId, scores);
+        writer.flush();
     }
 }
@@ -0,0 +1,248 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous write-behind pipeline for user_article_interactions.
+ * Encapsulation: callers enqueue interaction deltas and return immediately; a dedicated writer thread coalesces the
+ * deltas per (user, article) and upserts them in multi-row batches.
+ *
+ * - The buffer is bounded: when it is full, submit() blocks until the writer catches up (backpressure).
+ * - Batches are written when batchSize distinct pairs are pending or flushIntervalMillis has passed.
+ * - flush() waits for everything submitted so far to be written and reports whether the write succeeded; a JVM
+ *   shutdown hook flushes on exit.
+ * - Every delta gets a sequence number in queue order; committedThrough() is the highest one known to be in the
+ *   table, and readCommitted() reads the table while no batch commits, so readers can tell exactly which deltas
+ *   their read included.
+ * - Each batch is one transaction; a failed write is rolled back, keeps the deltas and is retried with exponential
+ *   backoff (up to MAX_BACKOFF_MILLIS), so a database outage does not turn the writer into a busy loop.
+ */
+public final class InteractionWriter {
+    private static final String UPSERT_SQL = "INSERT INTO user_article_interactions (user_id, article_id, interaction) " +
+            "VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE interaction = interaction + VALUES(interaction)"; // Add to existing interaction score
+    private static final long MAX_BACKOFF_MILLIS = 30_000; // Longest pause between retries of a failed write
+
+    // An interaction delta, or a flush marker when 'flushed' is set
+    private record Event(int userId, int articleId, float delta, long sequence, CompletableFuture<Boolean> flushed) {
+    }
+
+    /**
+     * The result of a read of the interactions table that includes exactly the deltas up to a sequence number.
+     *
+     * @param value   what was read
+     * @param through every delta with this sequence number or lower is included, none higher
+     */
+    public record Committed<T>(T value, long through) {
+    }
+
+    private final BlockingQueue<Event> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Map<Long, Float> pending = new LinkedHashMap<>(); // (user, article) -> coalesced delta; writer thread only
+    private final Thread writer;
+    private volatile boolean running = true;
+    private long backoffMillis = 0;  // Current retry delay after failed writes; writer thread only
+    private long retryAtMillis = 0;  // No scheduled write is attempted before this time; writer thread only
+
+    private final Object enqueueLock = new Object();                  // Keeps sequence numbers in queue order
+    private long lastSequence = 0;                                    // guarded by enqueueLock
+    private long dequeuedThrough = 0;                                 // Last sequence merged into 'pending'; writer thread only
+    private volatile long committedThrough = 0;                       // Every delta up to here is in the table
+    private final ReentrantLock commitLock = new ReentrantLock();     // Held while a batch commits or a reader reads
+
+    // Metrics
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong batchesWritten = new AtomicLong();
+    private final AtomicLong blockedSubmits = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    /**
+     * @param capacity            maximum number of queued events before submit() blocks
+     * @param batchSize           distinct (user, article) pairs that trigger a write
+     * @param flushIntervalMillis maximum time a delta waits before it is written
+     */
+    public InteractionWriter(int capacity, int batchSize, long flushIntervalMillis) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.writer = new Thread(this::run, "interaction-writer");
+        this.writer.setDaemon(true); // Shutdown is handled by close() and the shutdown hook
+        this.writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "interaction-writer-shutdown"));
+    }
+
+    /**
+     * Queues an interaction delta; blocks only when the buffer is full.
+     *
+     * @return the delta's sequence number (see committedThrough)
+     */
+    public long submit(int userId, int articleId, float delta) {
+        submitted.incrementAndGet();
+        synchronized (enqueueLock) {
+            Event event = new Event(userId, articleId, delta, ++lastSequence, null);
+            if (queue.offer(event)) return event.sequence();
+            blockedSubmits.incrementAndGet();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    queue.put(event); // Never drop an interaction: wait for space even if interrupted
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            return event.sequence();
+        }
+    }
+
+    // Highest sequence number such that it and every earlier delta are in the table
+    public long committedThrough() {
+        return committedThrough;
+    }
+
+    /**
+     * Runs a read of the interactions table while no batch can commit, and returns it with the sequence number it
+     * is consistent with: the read saw every delta up to 'through' and none after it.
+     */
+    public <T> Committed<T> readCommitted(Supplier<T> read) {
+        commitLock.lock();
+        try {
+            long through = committedThrough;
+            return new Committed<>(read.get(), through);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every delta submitted before this call has been written.
+     *
+     * @return true if they are all in the table; false if the write failed (the deltas stay queued for a retry), the
+     * writer has stopped or the caller was interrupted. Readers of the table should not build state from it then.
+     */
+    public boolean flush() {
+        if (!writer.isAlive()) return false;
+        CompletableFuture<Boolean> flushed = new CompletableFuture<>();
+        try {
+            queue.put(new Event(0, 0, 0f, 0, flushed));
+            while (true) {
+                try {
+                    return flushed.get(1, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    if (!writer.isAlive()) return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    // Flushes everything and stops the writer thread
+    public void close() {
+        if (!running) return;
+        flush();
+        running = false;
+        writer.interrupt();
+    }
+
+    public String getStats() {
+        return "submitted=" + submitted.get() + ", rowsWritten=" + rowsWritten.get() + ", batches=" + batchesWritten.get()
+                + ", blockedSubmits=" + blockedSubmits.get() + ", failedBatches=" + failedBatches.get()
+                + ", queued=" + queue.size();
+    }
+
+    private void run() {
+        long lastWrite = System.currentTimeMillis();
+        while (running) {
+            try {
+                long nextWrite = Math.max(lastWrite + flushIntervalMillis, retryAtMillis);
+                long wait = Math.max(1, nextWrite - System.currentTimeMillis());
+                Event event = queue.poll(wait, TimeUnit.MILLISECONDS);
+                while (event != null) {
+                    if (event.flushed() != null) {
+                        event.flushed().complete(writePending()); // A flush always tries once, even while backing off
+                    } else {
+                        long key = ((long) event.userId() << 32) | (event.articleId() & 0xFFFFFFFFL);
+                        pending.merge(key, event.delta(), Float::sum);
+                        dequeuedThrough = event.sequence();
+                        if (pending.size() >= batchSize) break;
+                    }
+                    event = queue.poll();
+                }
+                long now = System.currentTimeMillis();
+                if (now >= retryAtMillis && (pending.size() >= batchSize || now - lastWrite >= flushIntervalMillis)) {
+                    writePending();
+                    lastWrite = System.currentTimeMillis();
+                }
+            } catch (InterruptedException e) {
+                if (!running) break;
+            }
+        }
+        writePending();
+    }
+
+    // Writes the coalesced deltas as one batched upsert; keeps them and backs off if the write fails.
+    // Returns true if nothing is left pending.
+    private boolean writePending() {
+        if (pending.isEmpty()) {
+            committedThrough = dequeuedThrough;
+            return true;
+        }
+        commitLock.lock();
+        try (Connection conn = DBConnection.getConnection()) {
+            // The upserts are additive, so the batch commits as a whole: a retry after a partial write would
+            // apply deltas twice
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+                for (Map.Entry<Long, Float> entry : pending.entrySet()) {
+                    pstmt.setInt(1, (int) (entry.getKey() >> 32)); // Set user_id
+                    pstmt.setInt(2, (int) (long) entry.getKey()); // Set article_id
+                    pstmt.setFloat(3, entry.getValue()); // Coalesced interaction delta
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            rowsWritten.addAndGet(pending.size());
+            batchesWritten.incrementAndGet();
+            pending.clear();
+            committedThrough = dequeuedThrough; // Everything merged so far is now in the table
+            backoffMillis = 0;
+            retryAtMillis = 0;
+            return true;
+        } catch (SQLException e) {
+            failedBatches.incrementAndGet();
+            backoffMillis = backoffMillis == 0 ? flushIntervalMillis : Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            retryAtMillis = System.currentTimeMillis() + backoffMillis;
+            e.printStackTrace();
+            return false;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+}
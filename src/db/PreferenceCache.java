@@ -0,0 +1,241 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded per-user cache of category preference scores with write-behind flushing.
+ * Encapsulation: reads are served from memory after the first load, score deltas are applied to the cached view
+ * immediately (read-your-writes) and merged per (user, category) until a background flush writes them to
+ * user_preferences as one batched upsert. Flushes run on a timer, when enough deltas are pending, and on shutdown.
+ */
+public final class PreferenceCache {
+    private static final String LOAD_SQL = "SELECT category, score FROM user_preferences WHERE user_id = ?";
+    private static final String UPSERT_SQL = "INSERT INTO user_preferences (user_id, category, score) " +
+            "VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE score = score + VALUES(score)";
+
+    // Cached state of one user: scores as seen by readers, and the part of them not yet written to the database.
+    // All entries are guarded by the cache's monitor; database I/O always happens outside it.
+    private static class Entry {
+        final Map<String, Integer> scores = new HashMap<>();
+        final Map<String, Integer> pending = new HashMap<>();
+    }
+
+    private final int maxUsers;
+    private final int flushThreshold;
+    private final Map<Integer, Entry> entries;                            // LRU order, guarded by 'this'
+    private final Map<Integer, Map<String, Integer>> evictedPending = new HashMap<>(); // Unflushed deltas of evicted users, guarded by 'this'
+    private final AtomicInteger pendingDeltas = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final ReentrantLock flushLock = new ReentrantLock();           // Serialises flushes with cache-miss loads
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * @param maxUsers            maximum number of users kept in memory (least recently used are evicted)
+     * @param flushIntervalMillis how often pending deltas are written in the background
+     * @param flushThreshold      number of pending (user, category) deltas that triggers an early flush
+     */
+    public PreferenceCache(int maxUsers, long flushIntervalMillis, int flushThreshold) {
+        this.maxUsers = maxUsers;
+        this.flushThreshold = flushThreshold;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() <= PreferenceCache.this.maxUsers) return false;
+                // Keep the unflushed part so it is neither lost nor invisible to the next load of this user
+                if (!eldest.getValue().pending.isEmpty()) {
+                    mergeInto(evictedPending.computeIfAbsent(eldest.getKey(), id -> new HashMap<>()), eldest.getValue().pending);
+                }
+                return true;
+            }
+        };
+
+        // Daemon thread so the cache never keeps the JVM alive; flush() must be called on shutdown
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "preference-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Returns a copy of the user's current scores, including deltas not yet written to the database
+    public Map<String, Integer> get(int userId) {
+        Entry entry = entryFor(userId);
+        synchronized (this) {
+            return new HashMap<>(entry.scores);
+        }
+    }
+
+    // Adds score deltas to the user's categories; visible to readers immediately, written to the database later
+    public void applyDeltas(int userId, Map<String, Integer> deltas) {
+        if (deltas.isEmpty()) return;
+        entryFor(userId); // Make sure the user's stored scores are loaded before deltas are layered on top
+        int added = 0;
+        synchronized (this) {
+            Entry entry = entries.get(userId);
+            if (entry == null) {
+                // Evicted again right after loading: park the deltas where the next load picks them up
+                mergeInto(evictedPending.computeIfAbsent(userId, id -> new HashMap<>()), deltas);
+                added = deltas.size();
+            } else {
+                for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+                    entry.scores.merge(delta.getKey(), delta.getValue(), Integer::sum);
+                    if (!entry.pending.containsKey(delta.getKey())) {
+                        added++; // A new (user, category) slot; repeated deltas to the same slot coalesce
+                    }
+                    entry.pending.merge(delta.getKey(), delta.getValue(), Integer::sum);
+                }
+            }
+        }
+        if (pendingDeltas.addAndGet(added) >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * Writes every pending delta (including those of evicted users) as one batched upsert.
+     * If the write fails, the deltas are put back so the next flush retries them.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushScheduled.set(false);
+            Map<Integer, Map<String, Integer>> batch = new HashMap<>();
+            synchronized (this) {
+                for (Map.Entry<Integer, Map<String, Integer>> evicted : evictedPending.entrySet()) {
+                    mergeInto(batch.computeIfAbsent(evicted.getKey(), id -> new HashMap<>()), evicted.getValue());
+                }
+                evictedPending.clear();
+                for (Map.Entry<Integer, Entry> cached : entries.entrySet()) {
+                    Entry entry = cached.getValue();
+                    if (entry.pending.isEmpty()) continue;
+                    mergeInto(batch.computeIfAbsent(cached.getKey(), id -> new HashMap<>()), entry.pending);
+                    entry.pending.clear();
+                }
+            }
+            pendingDeltas.set(0);
+            if (batch.isEmpty()) return;
+
+            if (!write(batch)) {
+                // Put the deltas back; they are merged with anything that arrived meanwhile
+                synchronized (this) {
+                    for (Map.Entry<Integer, Map<String, Integer>> user : batch.entrySet()) {
+                        mergeInto(evictedPending.computeIfAbsent(user.getKey(), id -> new HashMap<>()), user.getValue());
+                    }
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Flushes pending deltas and stops the background flusher
+    public void shutdown() {
+        flusher.shutdownNow();
+        flush();
+    }
+
+    // Returns the cached entry of a user, loading it from the database on a miss
+    private Entry entryFor(int userId) {
+        synchronized (this) {
+            Entry entry = entries.get(userId);
+            if (entry != null) return entry;
+        }
+
+        // Load under the flush lock so an in-flight flush of this user's evicted deltas is not counted twice
+        flushLock.lock();
+        try {
+            synchronized (this) {
+                Entry entry = entries.get(userId);
+                if (entry != null) return entry;
+            }
+            Map<String, Integer> stored = load(userId);
+            Entry loaded = new Entry();
+            synchronized (this) {
+                Entry raced = entries.get(userId);
+                if (raced != null) return raced;
+                if (stored == null) {
+                    // Database unavailable: answer with the unflushed deltas only and retry the load next time
+                    mergeInto(loaded.scores, evictedPending.getOrDefault(userId, Map.of()));
+                    return loaded;
+                }
+                loaded.scores.putAll(stored);
+                Map<String, Integer> unflushed = evictedPending.remove(userId);
+                if (unflushed != null) {
+                    mergeInto(loaded.scores, unflushed);
+                    mergeInto(loaded.pending, unflushed);
+                }
+                entries.put(userId, loaded);
+                return loaded;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Reads the user's stored scores, or returns null if the database could not be queried
+    private Map<String, Integer> load(int userId) {
+        Map<String, Integer> scores = new HashMap<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(LOAD_SQL)) {
+            pstmt.setInt(1, userId); // Bind userId to prevent SQL injection
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                scores.put(rs.getString("category"), rs.getInt("score"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return scores;
+    }
+
+    // The upserts are additive, so the batch commits as a whole: a retry after a partial write would apply deltas twice
+    private boolean write(Map<Integer, Map<String, Integer>> batch) {
+        try (Connection conn = DBConnection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+                for (Map.Entry<Integer, Map<String, Integer>> user : batch.entrySet()) {
+                    for (Map.Entry<String, Integer> delta : user.getValue().entrySet()) {
+                        if (delta.getValue() == 0) continue; // Deltas that cancelled out need no write
+                        pstmt.setInt(1, user.getKey());
+                        pstmt.setString(2, delta.getKey());
+                        pstmt.setInt(3, delta.getValue());
+                        pstmt.addBatch();
+                    }
+                }
+                pstmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static void mergeInto(Map<String, Integer> target, Map<String, Integer> deltas) {
+        for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+            target.merge(delta.getKey(), delta.getValue(), Integer::sum);
+        }
+    }
+}
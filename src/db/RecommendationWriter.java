@@ -0,0 +1,133 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sink that collects precomputed recommendation lists and writes them to user_recommendations in batches.
+ * Encapsulation: callers add one user's ranked list at a time; every batchSize rows the pending lists are written as
+ * one batched upsert (rewritten into multi-row statements by the connector) plus one batched delete of the ranks a
+ * shorter list no longer uses, inside one transaction. Thread-safe: batch workers can add concurrently.
+ */
+public class RecommendationWriter {
+    private static final String UPSERT_SQL = "INSERT INTO user_recommendations (user_id, rank_pos, article_id, score, computed_at) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE article_id = VALUES(article_id), score = VALUES(score), computed_at = VALUES(computed_at)";
+    private static final String TRIM_SQL = "DELETE FROM user_recommendations WHERE user_id = ? AND rank_pos >= ?";
+
+    // One user's ranked list
+    private record UserList(int userId, int[] articleIds, double[] scores) {
+    }
+
+    private final int batchSize;
+    private final Timestamp computedAt;
+    private final List<UserList> pending = new ArrayList<>();
+    private int pendingRows = 0;
+    private long rowsWritten = 0;
+
+    /**
+     * @param batchSize  rows per database round trip
+     * @param computedAt when the data the lists were computed from was read (stored with every row)
+     */
+    public RecommendationWriter(int batchSize, long computedAt) {
+        this.batchSize = batchSize;
+        this.computedAt = new Timestamp(computedAt);
+    }
+
+    // Queues a user's list (best first), writing a batch when enough rows are pending
+    public void add(int userId, int[] articleIds, double[] scores) {
+        List<UserList> batch = null;
+        synchronized (this) {
+            pending.add(new UserList(userId, articleIds, scores));
+            pendingRows += Math.max(1, articleIds.length);
+            if (pendingRows >= batchSize) {
+                batch = new ArrayList<>(pending);
+                pending.clear();
+                pendingRows = 0;
+            }
+        }
+        if (batch != null) write(batch);
+    }
+
+    // Writes whatever is still pending
+    public void flush() {
+        List<UserList> batch;
+        synchronized (this) {
+            batch = new ArrayList<>(pending);
+            pending.clear();
+            pendingRows = 0;
+        }
+        if (!batch.isEmpty()) write(batch);
+    }
+
+    public synchronized long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    private void write(List<UserList> batch) {
+        try (Connection conn = DBConnection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement upsert = conn.prepareStatement(UPSERT_SQL);
+                 PreparedStatement trim = conn.prepareStatement(TRIM_SQL)) {
+                int rows = 0;
+                for (UserList list : batch) {
+                    for (int rank = 0; rank < list.articleIds().length; rank++) {
+                        upsert.setInt(1, list.userId());
+                        upsert.setInt(2, rank);
+                        upsert.setInt(3, list.articleIds()[rank]);
+                        upsert.setDouble(4, list.scores()[rank]);
+                        upsert.setTimestamp(5, computedAt);
+                        upsert.addBatch();
+                        rows++;
+                    }
+                    trim.setInt(1, list.userId());
+                    trim.setInt(2, list.articleIds().length); // Ranks past the end of the new list are stale
+                    trim.addBatch();
+                }
+                upsert.executeBatch();
+                trim.executeBatch();
+                conn.commit();
+                synchronized (this) {
+                    rowsWritten += rows;
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads a user's precomputed list if it was computed at or after notBefore.
+     *
+     * @return article ids, best first, or null if there is no list that recent
+     */
+    public static List<Integer> load(int userId, long notBefore) {
+        String query = "SELECT article_id FROM user_recommendations WHERE user_id = ? AND computed_at >= ? ORDER BY rank_pos";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setInt(1, userId);
+            pstmt.setTimestamp(2, new Timestamp(notBefore));
+            List<Integer> articleIds = new ArrayList<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    articleIds.add(rs.getInt(1));
+                }
+            }
+            return articleIds.isEmpty() ? null : articleIds;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
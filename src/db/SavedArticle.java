@@ -0,0 +1,11 @@
+package db;
+
+/**
+ * Outcome of an atomic article upsert.
+ *
+ * @param articleId the ID of the inserted or already stored article (-1 if the write failed)
+ * @param inserted  true if a new row was created; false if the page was already stored (a row with the same canonical
+ *                  URL, or a row with the same title hash that was stored before URLs were recorded)
+ */
+public record SavedArticle(int articleId, boolean inserted) {
+}
@@ -0,0 +1,129 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Idempotent schema migrations applied at startup.
+ * Each step checks information_schema first, so running it against an already migrated database is a no-op.
+ */
+public class SchemaMigrations {
+    private static volatile boolean applied = false;
+
+    // Applies every pending migration once per process
+    public static synchronized void apply() {
+        if (applied) return;
+        try (Connection conn = DBConnection.getConnection()) {
+            // Incremental refresh: remember where each article came from, what its content was and when it was last seen
+            addColumn(conn, "Articles", "url", "VARCHAR(512) NULL");
+            addColumn(conn, "Articles", "content_hash", "CHAR(64) NULL");
+            addColumn(conn, "Articles", "fetched_at", "TIMESTAMP NULL");
+            addColumn(conn, "Articles", "last_seen", "TIMESTAMP NULL");
+            addIndex(conn, "Articles", "idx_articles_url", "INDEX idx_articles_url (url(191))");
+            addIndex(conn, "Articles", "idx_articles_last_seen", "INDEX idx_articles_last_seen (last_seen)");
+            // Multi-source scraping: persistent crawl frontier of discovered but unfetched links
+            execute(conn, "CREATE TABLE IF NOT EXISTS crawl_frontier (" +
+                    "url VARCHAR(512) NOT NULL PRIMARY KEY, " +
+                    "source VARCHAR(64) NOT NULL, " +
+                    "title VARCHAR(512), " +
+                    "attempts INT NOT NULL DEFAULT 0, " +
+                    "discovered_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                    "next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                    "INDEX idx_crawl_frontier_due (next_attempt_at))");
+            // Near-duplicate detection: SimHash signature per article, and pages merged into an existing article
+            addColumn(conn, "Articles", "simhash", "BIGINT NULL");
+            execute(conn, "CREATE TABLE IF NOT EXISTS article_aliases (" +
+                    "url VARCHAR(512) NOT NULL PRIMARY KEY, " +
+                    "article_id INT NOT NULL, " +
+                    "title VARCHAR(512), " +
+                    "content_hash CHAR(64), " +
+                    "fetched_at TIMESTAMP NULL, " +
+                    "INDEX idx_article_aliases_article (article_id))");
+            // Keyed lookups: fixed-width title hash and canonical URL, each unique so inserts can upsert atomically
+            addColumn(conn, "Articles", "title_hash", "BINARY(32) NULL");
+            addColumn(conn, "Articles", "canonical_url", "VARCHAR(512) NULL");
+            if (!indexExists(conn, "Articles", "uq_articles_title_hash")) {
+                backfillKeys(conn);
+            }
+            addIndex(conn, "Articles", "uq_articles_title_hash", "UNIQUE INDEX uq_articles_title_hash (title_hash)");
+            addIndex(conn, "Articles", "uq_articles_canonical_url", "UNIQUE INDEX uq_articles_canonical_url (canonical_url)");
+            // Batch recommendations: each user's precomputed hybrid top-N, one row per rank
+            execute(conn, "CREATE TABLE IF NOT EXISTS user_recommendations (" +
+                    "user_id INT NOT NULL, " +
+                    "rank_pos INT NOT NULL, " +
+                    "article_id INT NOT NULL, " +
+                    "score DOUBLE NOT NULL, " +
+                    "computed_at TIMESTAMP(3) NOT NULL, " +
+                    "PRIMARY KEY (user_id, rank_pos))");
+            applied = true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void addColumn(Connection conn, String table, String column, String definition) throws SQLException {
+        String query = "SELECT COUNT(*) FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND LOWER(TABLE_NAME) = LOWER(?) AND COLUMN_NAME = ?";
+        if (!exists(conn, query, table, column)) {
+            execute(conn, "ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
+
+    private static void addIndex(Connection conn, String table, String index, String definition) throws SQLException {
+        if (!indexExists(conn, table, index)) {
+            execute(conn, "ALTER TABLE " + table + " ADD " + definition);
+        }
+    }
+
+    private static boolean indexExists(Connection conn, String table, String index) throws SQLException {
+        String query = "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND LOWER(TABLE_NAME) = LOWER(?) AND INDEX_NAME = ?";
+        return exists(conn, query, table, index);
+    }
+
+    /**
+     * Fills title_hash and canonical_url for existing rows before the unique indexes are created.
+     * Keys are computed with ArticleKeys so they match what the DAO writes; when several legacy rows share a title or
+     * URL, only the oldest one gets the key and the others keep NULL (still readable, just not reachable by key).
+     */
+    private static void backfillKeys(Connection conn) throws SQLException {
+        Set<String> titles = new HashSet<>();
+        Set<String> urls = new HashSet<>();
+        try (PreparedStatement select = conn.prepareStatement("SELECT id, title, url FROM Articles ORDER BY id");
+             PreparedStatement update = conn.prepareStatement("UPDATE Articles SET title_hash = ?, canonical_url = ? WHERE id = ?");
+             ResultSet rs = select.executeQuery()) {
+            int batched = 0;
+            while (rs.next()) {
+                String title = rs.getString("title");
+                String url = ArticleKeys.canonicalUrl(rs.getString("url"));
+                update.setBytes(1, title != null && titles.add(title) ? ArticleKeys.titleHash(title) : null);
+                update.setString(2, url != null && urls.add(url) ? url : null);
+                update.setInt(3, rs.getInt("id"));
+                update.addBatch();
+                if (++batched % 500 == 0) update.executeBatch();
+            }
+            update.executeBatch();
+        }
+    }
+
+    private static boolean exists(Connection conn, String query, String table, String name) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setString(1, table);
+            pstmt.setString(2, name);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private static void execute(Connection conn, String ddl) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(ddl);
+        }
+    }
+}
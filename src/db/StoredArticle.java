@@ -0,0 +1,17 @@
+package db;
+
+import java.sql.Timestamp;
+
+/**
+ * What the database already knows about a scraped article, used to decide whether it needs to be fetched again.
+ *
+ * @param id          the article ID
+ * @param title       the stored title
+ * @param url         the source URL
+ * @param contentHash fingerprint of the stored content (null for rows stored before fingerprints existed)
+ * @param fetchedAt   when the article page was last fetched (null if unknown)
+ * @param alias       true if the URL was merged into article 'id' as a near-duplicate; title, contentHash and
+ *                    fetchedAt then describe the duplicate page, not the article it was merged into
+ */
+public record StoredArticle(int id, String title, String url, String contentHash, Timestamp fetchedAt, boolean alias) {
+}
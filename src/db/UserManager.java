@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static model.Article.getArticleTitleById;
+import static model.RecommendationSystem.invalidateRecommendations;
 import static model.RecommendationSystem.updateInteractionScore;
 import static model.Administration.*;
 
@@ -24,6 +25,12 @@ public class UserManager {
     // Using ConcurrentHashMap to store locks for each user, ensuring thread-safety when interacting with user preferences
     private static final Map<Integer, ReentrantLock> userLocks = new ConcurrentHashMap<>();
 
+    // Per-user preference cache: reads are served from memory, score deltas are flushed to user_preferences in the background
+    private static final PreferenceCache preferenceCache = new PreferenceCache(
+            1000,   // Users kept in memory
+            5000,   // Flush interval in milliseconds
+            200);   // Pending (user, category) deltas that trigger an early flush
+
 
     // Method to get the current logged-in user
     public static User getCurrentUser() {
@@ -41,14 +48,16 @@ public class UserManager {
         try (Connection conn = DBConnection.getConnection()) {
 
 
-            // Check if the username already exists
+            // Check if the username already exists (statements are closed explicitly: pooled connections outlive them)
             String checkQuery = "SELECT COUNT(*) FROM users WHERE username = ?";
-            PreparedStatement checkStmt = conn.prepareStatement(checkQuery);
-            checkStmt.setString(1, user.getUsername());
+            int count;
+            try (PreparedStatement checkStmt = conn.prepareStatement(checkQuery)) {
+                checkStmt.setString(1, user.getUsername());
 
-            ResultSet rs = checkStmt.executeQuery();
-            rs.next();
-            int count = rs.getInt(1);
+                ResultSet rs = checkStmt.executeQuery();
+                rs.next();
+                count = rs.getInt(1);
+            }
 
             if (count > 0) {
                 System.out.println("You are promoted! your username already exists. Let's try logging in");
@@ -59,10 +68,11 @@ public class UserManager {
 
             // Insert new user
             String query = "INSERT INTO Users (username, password) VALUES (?, ?)";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, user.getUsername());
-            stmt.setString(2, user.getPassword());
-            return stmt.executeUpdate() > 0;
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                stmt.setString(1, user.getUsername());
+                stmt.setString(2, user.getPassword());
+                return stmt.executeUpdate() > 0;
+            }
         } catch (Exception e) {
             e.printStackTrace();
             return false;
@@ -106,28 +116,45 @@ public class UserManager {
     }
 
     // Abstraction | Hiding the complex details of SQL operations while exposing a simple interface to retrieve user preferences.
+    // Served from the preference cache, so it includes score changes that have not been flushed to the database yet.
     public static Map<String, Integer> getUserPreferences(int userId) {
-        Map<String, Integer> userPreferences = new HashMap<>();
-
-        String query = "SELECT category, score FROM user_preferences WHERE user_id = ?";
+        return preferenceCache.get(userId);  // Returning the user preferences (encapsulated data)
+    }
 
+    /**
+     * Reads every user's stored preferences with a single query (for batch jobs).
+     * Pending deltas are flushed first so the result matches what getUserPreferences would return.
+     *
+     * @return user id -> category -> score, for every user in the users table (empty map if a user has none)
+     */
+    public static Map<Integer, Map<String, Integer>> getAllUserPreferences() {
+        preferenceCache.flush();
+        Map<Integer, Map<String, Integer>> preferences = new HashMap<>();
+        String query = "SELECT u.id, up.category, up.score FROM users u " +
+                "LEFT JOIN user_preferences up ON up.user_id = u.id";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            pstmt.setInt(1, userId); // Bind userId to prevent SQL injection
-            ResultSet rs = pstmt.executeQuery();
-
+             PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                String category = rs.getString("category");
-                int preferenceWeight = rs.getInt("score");
-                userPreferences.put(category, preferenceWeight);
+                Map<String, Integer> scores = preferences.computeIfAbsent(rs.getInt(1), id -> new HashMap<>());
+                String category = rs.getString(2);
+                if (category != null) scores.put(category, rs.getInt(3));
             }
-
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return preferences;
+    }
 
-        return userPreferences;  // Returning the user preferences (encapsulated data)
+    // Applies preference score deltas and invalidates the user's cached recommendations
+    private static void applyPreferenceDeltas(int userId, Map<String, Integer> deltas) {
+        preferenceCache.applyDeltas(userId, deltas);
+        invalidateRecommendations(userId);
+    }
+
+    // Writes all pending preference deltas to the database (called on shutdown)
+    public static void flushPreferences() {
+        preferenceCache.shutdown();
     }
 
     // Method to update user preferences. This ensures thread safety using a ReentrantLock.
@@ -136,29 +163,10 @@ public class UserManager {
         ReentrantLock userLock = userLocks.get(userId);
         userLock.lock();  // Ensure thread-safety when updating user preferences.
 
-        String upsertQuery = "INSERT INTO user_preferences (user_id, category, score) " +
-                "VALUES (?, ?, ?) " +
-                "ON DUPLICATE KEY UPDATE score = score + VALUES(score)";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(upsertQuery)) {
-            // Loop through the category scores and update user preferences
-            for (Map.Entry<String, Integer> entry : scores.entrySet()) {
-                String category = entry.getKey();
-                int score = entry.getValue();
-
-                // Set the parameters for the upsert query
-                pstmt.setInt(1, userId); // User ID
-                pstmt.setString(2, category); // Category
-                pstmt.setInt(3, score); // Score
-
-                pstmt.addBatch(); // Add to batch for efficient execution
-            }
-
-            // Execute the batch update
-            pstmt.executeBatch();
+        try {
+            // Apply the category scores as deltas; the cache merges them and writes them to the database in a batch
+            applyPreferenceDeltas(userId, scores);
             System.out.println("User preferences updated successfully for user ID: " + userId);
-        } catch (SQLException e) {
-            e.printStackTrace();
         } finally {
             userLock.unlock();  // Always unlock in the finally block
         }
@@ -169,18 +177,12 @@ public class UserManager {
         // Get current user instance using UserManager (encapsulation of global user)
         //User user = UserManager.getCurrentUser();
 
-        // SQL queries for fetching categories and updating preferences
+        // SQL query for fetching categories (preference updates go through the preference cache)
         String fetchCategoriesQuery = "SELECT category, keyword_count FROM article_classification WHERE article_id = ?";
-        String updatePreferencesQuery = """
-        INSERT INTO user_preferences (user_id, category, score)
-        VALUES (?, ?, ?)
-        ON DUPLICATE KEY UPDATE score = score + ?
-    """;
         //System.out.println("we got here1");
+        Map<String, Integer> deltas = new HashMap<>();
         try (Connection conn = DBConnection.getConnection();
-
-             PreparedStatement fetchStmt = conn.prepareStatement(fetchCategoriesQuery);
-             PreparedStatement updateStmt = conn.prepareStatement(updatePreferencesQuery)) {
+             PreparedStatement fetchStmt = conn.prepareStatement(fetchCategoriesQuery)) {
 
             //System.out.println("we got here2");
 
@@ -200,47 +202,38 @@ public class UserManager {
                 // Calculate dynamic impact of a like
                 int impactOfALike = 2 * keywordCount; // Dynamic weight based on keyword_count
 
-                // Update the user's preferences for each category (use of batching for efficiency)
-                updateStmt.setInt(1, id);
-                updateStmt.setString(2, category);
-                updateStmt.setInt(3, impactOfALike); // Insert score
-                updateStmt.setInt(4, impactOfALike); // Increment score if exists
-                updateStmt.addBatch(); // Add to batch (improves performance)
+                // Collect the user's preference change for each category
+                deltas.put(category, impactOfALike);
                 //System.out.println("we got here6");
             }
-
-            //System.out.println("we got here7");
-
-            // Execute the batch update (use of batch processing for better performance)
-            updateStmt.executeBatch();
-            System.out.println("Thumbs up! You officially liked it. We knew you had good taste.");
-
-            // Update interaction score for this user
-            updateInteractionScore(id, articleId, 5.0f); // 5.0 for like
-
-            //System.out.println("we got here8");
-
         } catch (SQLException e) {
             //System.out.println("we got here9");
             e.printStackTrace();
+            return;
         }
+
+        //System.out.println("we got here7");
+
+        // Apply the changes through the preference cache (merged and written to the database in the background)
+        applyPreferenceDeltas(id, deltas);
+        System.out.println("Thumbs up! You officially liked it. We knew you had good taste.");
+
+        // Update interaction score for this user
+        updateInteractionScore(id, articleId, 5.0f); // 5.0 for like
+
+        //System.out.println("we got here8");
     }
 
     // Method to handle user disliking an article (similar to the 'userLikes' method)
     public static void userDislikes(int id, int articleId) {
         //User user = getCurrentUser();
 
-        // SQL queries for fetching categories and updating preferences
+        // SQL query for fetching categories (preference updates go through the preference cache)
         String fetchCategoriesQuery = "SELECT category, keyword_count FROM article_classification WHERE article_id = ?";
-        String updatePreferencesQuery = """
-        INSERT INTO user_preferences (user_id, category, score)
-        VALUES (?, ?, ?)
-        ON DUPLICATE KEY UPDATE score = score + ?
-        """;
 
+        Map<String, Integer> deltas = new HashMap<>();
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement fetchStmt = conn.prepareStatement(fetchCategoriesQuery);
-             PreparedStatement updateStmt = conn.prepareStatement(updatePreferencesQuery)) {
+             PreparedStatement fetchStmt = conn.prepareStatement(fetchCategoriesQuery)) {
 
             // Fetch the categories and weights associated with the article
             fetchStmt.setInt(1, articleId);
@@ -253,23 +246,20 @@ public class UserManager {
                 // Calculate dynamic impact of a dislike
                 int impactOfADislike = -2 * Math.abs(keywordCount);// Dynamic weight based on keyword_count
 
-                // Update the user's preferences for each category
-                updateStmt.setInt(1, id);
-                updateStmt.setString(2, category);
-                updateStmt.setInt(3, impactOfADislike); // Insert score
-                updateStmt.setInt(4, impactOfADislike); // Decrement score if exists
-                updateStmt.addBatch(); // Add to batch
+                // Collect the user's preference change for each category
+                deltas.put(category, impactOfADislike);
             }
-
-            // Update interaction score for this user (negative score for dislike)
-            updateInteractionScore(id, articleId, -5.0f); // -5.0 for dislike
-
-            // Execute the batch update
-            updateStmt.executeBatch();
-            System.out.println("A thumbs down? Don’t worry, we’ll find something better!");
         } catch (SQLException e) {
             e.printStackTrace();
+            return;
         }
+
+        // Update interaction score for this user (negative score for dislike)
+        updateInteractionScore(id, articleId, -5.0f); // -5.0 for dislike
+
+        // Apply the changes through the preference cache
+        applyPreferenceDeltas(id, deltas);
+        System.out.println("A thumbs down? Don’t worry, we’ll find something better!");
     }
 
 
@@ -280,17 +270,12 @@ public class UserManager {
         // Define the weightage of a skip
         int impactOfASkip = -1; // Reduce score for skipping
 
-        // SQL queries for fetching categories and updating preferences
+        // SQL query for fetching categories (preference updates go through the preference cache)
         String fetchCategoriesQuery = "SELECT category FROM article_classification WHERE article_id = ?";
-        String updatePreferencesQuery = """
-        INSERT INTO user_preferences (user_id, category, score)
-        VALUES (?, ?, ?)
-        ON DUPLICATE KEY UPDATE score = score + ?
-    """;
 
+        Map<String, Integer> deltas = new HashMap<>();
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement fetchStmt = conn.prepareStatement(fetchCategoriesQuery);
-             PreparedStatement updateStmt = conn.prepareStatement(updatePreferencesQuery)) {
+             PreparedStatement fetchStmt = conn.prepareStatement(fetchCategoriesQuery)) {
 
             // Fetch the categories associated with the article
             fetchStmt.setInt(1, articleId);
@@ -299,22 +284,19 @@ public class UserManager {
             while (rs.next()) {
                 String category = rs.getString("category");
 
-                // Update the user's preferences for each category
-                updateStmt.setInt(1, id);
-                updateStmt.setString(2, category);
-                updateStmt.setInt(3, impactOfASkip); // Insert score
-                updateStmt.setInt(4, impactOfASkip); // Decrement score if exists
-                updateStmt.addBatch(); // Add to batch
+                // Collect the user's preference change for each category
+                deltas.put(category, impactOfASkip);
             }
-
-            // Update interaction score for this user (skip has minimal impact)
-            updateInteractionScore(id, articleId, -1.0f);
-
-            // Execute the batch update
-            updateStmt.executeBatch();
         } catch (SQLException e) {
             e.printStackTrace();
+            return;
         }
+
+        // Update interaction score for this user (skip has minimal impact)
+        updateInteractionScore(id, articleId, -1.0f);
+
+        // Apply the changes through the preference cache
+        applyPreferenceDeltas(id, deltas);
     }
 
 
@@ -322,75 +304,69 @@ public class UserManager {
     public static void userRates(int id, int articleId) {
         //User user = getCurrentUser();
 
-        // SQL queries for fetching categories and updating preferences
+        // SQL query for fetching categories (preference updates go through the preference cache)
         String fetchCategoriesQuery = "SELECT category, keyword_count FROM article_classification WHERE article_id = ?";
-        String updatePreferencesQuery = """
-        INSERT INTO user_preferences (user_id, category, score)
-        VALUES (?, ?, ?)
-        ON DUPLICATE KEY UPDATE score = score + ?
-    """;
 
+        // Fetch the categories and scores associated with the article
+        Map<String, Integer> keywordCounts = new HashMap<>();
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement fetchCategoriesStmt = conn.prepareStatement(fetchCategoriesQuery);
-             PreparedStatement updateStmt = conn.prepareStatement(updatePreferencesQuery)) {
-
-            // Fetch the categories and scores associated with the article
+             PreparedStatement fetchCategoriesStmt = conn.prepareStatement(fetchCategoriesQuery)) {
             fetchCategoriesStmt.setInt(1, articleId);
             ResultSet rs = fetchCategoriesStmt.executeQuery();
+            while (rs.next()) {
+                keywordCounts.put(rs.getString("category"), rs.getInt("keyword_count"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return;
+        }
 
-            // Prompt user for a rating
-            Scanner scanner = new Scanner(System.in);
-            System.out.println("Rate it like you’re reviewing a Netflix series from 1 to 10: ");
-            int rating = scanner.nextInt();
+        // Prompt user for a rating
+        Scanner scanner = new Scanner(System.in);
+        System.out.println("Rate it like you’re reviewing a Netflix series from 1 to 10: ");
+        int rating = scanner.nextInt();
 
-            // Validate rating input (Ensures input validation)
-            if (rating < 1 || rating > 10) {
-                System.out.println("Uh-oh, you’ve gone off the charts. A rating between 1 and 10 is all we need!");
-                return;
-            }
+        // Validate rating input (Ensures input validation)
+        if (rating < 1 || rating > 10) {
+            System.out.println("Uh-oh, you’ve gone off the charts. A rating between 1 and 10 is all we need!");
+            return;
+        }
 
-            // Calculate rating multiplier based on rating value (polymorphism in handling different user inputs)
-            double multiplier;
-            if (rating == 6) {
-                multiplier = 1; // No impact for a neutral rating
-                updateInteractionScore(id, articleId, 0.0f); // 0.0 for neutral
-            } else if (rating > 6) {
-                multiplier = 1 + (rating - 6) * 0.5; // Increment by 0.5 per step above 6
-                System.out.println("Top contender right here! This article just leveled up.");
-                updateInteractionScore(id, articleId, (rating - 3));
-            }else if (rating ==1) {
-                multiplier = -0.1; // Increment by 0.5 per step above 6
-                //System.out.println("Top contender right here! This article just leveled up.");
-                updateInteractionScore(id, articleId, (rating - 3));
-            } else {
-                multiplier = -(1 - (6 - rating) * 0.2); // Decrease multiplier for negative ratings (below 6)
-                updateInteractionScore(id, articleId, rating - 5); // 0.0 for dislike
-                System.out.println("Don’t worry, we are working hard behind the scenes to find your favorites!");
-            }
+        // Calculate rating multiplier based on rating value (polymorphism in handling different user inputs)
+        double multiplier;
+        if (rating == 6) {
+            multiplier = 1; // No impact for a neutral rating
+            updateInteractionScore(id, articleId, 0.0f); // 0.0 for neutral
+        } else if (rating > 6) {
+            multiplier = 1 + (rating - 6) * 0.5; // Increment by 0.5 per step above 6
+            System.out.println("Top contender right here! This article just leveled up.");
+            updateInteractionScore(id, articleId, (rating - 3));
+        }else if (rating ==1) {
+            multiplier = -0.1; // Increment by 0.5 per step above 6
+            //System.out.println("Top contender right here! This article just leveled up.");
+            updateInteractionScore(id, articleId, (rating - 3));
+        } else {
+            multiplier = -(1 - (6 - rating) * 0.2); // Decrease multiplier for negative ratings (below 6)
+            updateInteractionScore(id, articleId, rating - 5); // 0.0 for dislike
+            System.out.println("Don’t worry, we are working hard behind the scenes to find your favorites!");
+        }
 
-            // Iterate over categories and update scores based on the multiplier
-            while (rs.next()) {
-                String category = rs.getString("category");
-                int currentScore = rs.getInt("keyword_count"); // Fetch the score directly from article_classification
-
-                // Apply multiplier and calculate new score
-                int roundedScore = (int) Math.round(currentScore * multiplier);
-                //if (roundedScore < 0) roundedScore = 0; // Ensure score doesn't go negative
-
-                // Update the score in the database
-                updateStmt.setInt(1, id);
-                updateStmt.setString(2, category);
-                updateStmt.setInt(3, roundedScore); // Insert score
-                updateStmt.setInt(4, roundedScore); // Update score
-                updateStmt.addBatch(); // Add to batch
-            }
+        // Iterate over categories and update scores based on the multiplier
+        Map<String, Integer> deltas = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : keywordCounts.entrySet()) {
+            String category = entry.getKey();
+            int currentScore = entry.getValue(); // The score comes directly from article_classification
 
-            // Execute batch update
-            updateStmt.executeBatch();
-            System.out.println("User rating updated successfully for user ID: " + id);
-        } catch (SQLException e) {
-            e.printStackTrace();
+            // Apply multiplier and calculate new score
+            int roundedScore = (int) Math.round(currentScore * multiplier);
+            //if (roundedScore < 0) roundedScore = 0; // Ensure score doesn't go negative
+
+            deltas.put(category, roundedScore);
         }
+
+        // Apply the changes through the preference cache
+        applyPreferenceDeltas(id, deltas);
+        System.out.println("User rating updated successfully for user ID: " + id);
     }
 
 
@@ -1,8 +1,14 @@
 package main;
 
 import concurrency.ConcurrencyHandler;
+import db.SchemaMigrations;
 import db.UserManager;
+import model.Article;
+import model.ArticleDirectory;
+import model.RecommendationSystem;
 import model.User;
+import scraper.ArticleExpiry;
+import scraper.IngestionService;
 import scraper.Webscraper;
 import java.util.concurrent.*;
 import java.util.Scanner;
@@ -17,6 +23,13 @@ public class Main {
      */
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
+        SchemaMigrations.apply(); // Add the incremental-refresh columns if the database predates them
+        if (Webscraper.isIncrementalRefresh()) {
+            // Articles are kept across sessions; stale ones are expired by age in the background
+            ArticleExpiry.start(Webscraper.ARTICLE_MAX_AGE_HOURS, Webscraper.ARTICLE_EXPIRY_INTERVAL_MINUTES);
+            // Keep the store fresh in the background so logins never wait on the news site
+            IngestionService.start(Webscraper.INGESTION_INTERVAL_MINUTES, Webscraper.INGESTION_JITTER);
+        }
 
         System.out.println();
         System.out.println("Hold onto your hat! Welcome to your Personalized News Recommendation System! Let’s get you updated!");
@@ -55,6 +68,11 @@ public class Main {
             scanner.close(); // Ensure the scanner is closed to avoid resource leaks
         }
 
+        IngestionService.stop();
+        ArticleExpiry.stop();
+        RecommendationSystem.flushInteractions(); // Write queued interactions before exiting
+        UserManager.flushPreferences(); // Write pending preference changes before exiting
+        shutdownPool(); // Close pooled database connections before exiting
         System.exit(0); // Terminates the program after task completion
     }
 
@@ -126,17 +144,39 @@ public class Main {
 
         int userId = UserManager.loginUser(username, password);  // User login validation
         if (userId != -1) {
-            System.out.println("It’s good to see you again "+username+"! Your personalized news feed is being scraped!🕸");
-            Webscraper.scrapeArticles(userId);  // Scrape articles based on user ID
+            if (IngestionService.isRunning()) {
+                System.out.println("It’s good to see you again "+username+"! Here is your personalized news feed!🕸");
+                showStoredArticles(userId);  // Read the store kept fresh by the ingestion service
+            } else {
+                System.out.println("It’s good to see you again "+username+"! Your personalized news feed is being scraped!🕸");
+                Webscraper.scrapeArticles(userId);  // Full refresh mode: scrape articles based on user ID
+            }
             System.out.println();
         } else {
             System.out.println("Oops! That didn’t work. Double-check your username and password, and try again!");
         }
-        clearExistingNews();  // Clear previous news (perhaps for user session or cleanup)
+        if (!Webscraper.isIncrementalRefresh()) {
+            clearExistingNews();  // Full refresh mode: clear previous news (perhaps for user session or cleanup)
+        }
         System.out.println();
         System.out.println("And that’s a wrap! Thanks for visiting, "+username+". Catch you on the flip side. 😎");
     }
 
+    /**
+     * Shows the already-stored articles. Only a cold start (empty store) waits, and only for the first background refresh.
+     * @param userId the logged in user
+     */
+    private static void showStoredArticles(int userId) {
+        if (ArticleDirectory.isEmpty()) {
+            System.out.println("Fetching the first batch of news, hang tight...");
+            IngestionService.awaitRefresh(Webscraper.COLD_START_WAIT_SECONDS, TimeUnit.SECONDS);
+            if (ArticleDirectory.isEmpty()) {
+                IngestionService.refresh(true).join(); // No refresh was in flight (or it found nothing): run one now
+            }
+        }
+        Article.displayTitles(userId);
+    }
+
     // Graceful shutdown of ExecutorService
     // OOP Principle: **Resource Management** - Ensuring proper shutdown of resources.
     // private static void addShutdownHook() {
@@ -1,11 +1,14 @@
 package model;
 
+import db.ArticleKeys;
 import db.DBConnection;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -64,13 +67,23 @@ public class Administration {
 
     // Method to add a new article to the database
     private static void addArticle(String title, String content) {
-        String sql = "INSERT INTO articles (title, content) VALUES (?, ?)";
+        String sql = "INSERT INTO articles (title, title_hash, content) VALUES (?, ?, ?)";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, title);
-            pstmt.setString(2, content);
+            pstmt.setBytes(2, ArticleKeys.titleHash(title));
+            pstmt.setString(3, content);
             pstmt.executeUpdate();
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    ArticleDirectory.put(generatedKeys.getInt(1), title);  // Register the new article in the id/title directory
+                } else {
+                    ArticleDirectory.invalidate();  // Unknown id: reload the directory on next use
+                }
+            }
             System.out.println("Article added successfully.");
+        } catch (SQLIntegrityConstraintViolationException e) {
+            System.out.println("An article with this title already exists.");  // Rejected by the unique title hash index
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -95,14 +108,10 @@ public class Administration {
 
     // Method to delete an article by its ID
     private static void deleteArticle(int articleId) {
-        String sql = "DELETE FROM articles WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, articleId);
-            pstmt.executeUpdate();
+        // Also deletes the article's aliases (other outlets' copies), classification and interactions, and drops it
+        // from the in-memory directory and indexes
+        if (DBConnection.deleteArticles(List.of(articleId))) {
             System.out.println("Article deleted successfully.");
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
     }
 
@@ -130,6 +139,7 @@ public class Administration {
             if (!keywordList.contains(newKeyword)) {
                 keywordList.add(newKeyword);  // Add the new keyword
                 categories.put(category, keywordList.toArray(new String[0]));  // Update the category with the new list of keywords
+                Category.keywordsChanged();  // Recompile the keyword matcher on next use
                 System.out.println("Keyword added to existing category: " + category);
             } else {
                 System.out.println("Keyword already exists in the category.");
@@ -137,6 +147,7 @@ public class Administration {
         } else {
             // Create a new category with the new keyword
             categories.put(category, new String[]{newKeyword});
+            Category.keywordsChanged();  // Recompile the keyword matcher on next use
             System.out.println("New category created with the keyword: " + newKeyword);
         }
     }
@@ -0,0 +1,135 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Learned matrix-factorisation model: one latent factor vector per user and per article.
+ * Encapsulation: ids are kept in sorted int arrays and the factors in flat float arrays (row i occupies
+ * [i * factors, (i + 1) * factors)), so a user x article score is one binary search and a short dot product.
+ * Instances are immutable; retraining produces a new model.
+ *
+ * Binary file layout (big-endian): magic "ALS1", factors, numUsers, numArticles, userIds[], articleIds[],
+ * userFactors[], articleFactors[].
+ */
+public class AlsModel {
+    private static final int MAGIC = 0x414C5331; // "ALS1"
+
+    private final int factors;
+    private final int[] userIds;          // Sorted ascending
+    private final int[] articleIds;       // Sorted ascending
+    private final float[] userFactors;    // numUsers x factors, row-major
+    private final float[] articleFactors; // numArticles x factors, row-major
+
+    AlsModel(int factors, int[] userIds, int[] articleIds, float[] userFactors, float[] articleFactors) {
+        this.factors = factors;
+        this.userIds = userIds;
+        this.articleIds = articleIds;
+        this.userFactors = userFactors;
+        this.articleFactors = articleFactors;
+    }
+
+    public int factors() {
+        return factors;
+    }
+
+    public int numUsers() {
+        return userIds.length;
+    }
+
+    public int numArticles() {
+        return articleIds.length;
+    }
+
+    // Predicted preference of a user for an article, or 0 if either was not part of the training data
+    public double score(int userId, int articleId) {
+        int user = Arrays.binarySearch(userIds, userId);
+        int article = Arrays.binarySearch(articleIds, articleId);
+        if (user < 0 || article < 0) return 0.0;
+        return dot(userFactors, user * factors, articleFactors, article * factors, factors);
+    }
+
+    /**
+     * Ranks every article the predicate accepts by predicted preference.
+     *
+     * @return up to topN articles, best first (empty if the user was not part of the training data)
+     */
+    public RankedArticles recommend(int userId, int topN, IntPredicate candidate) {
+        int user = Arrays.binarySearch(userIds, userId);
+        if (user < 0) return RankedArticles.EMPTY;
+        TopKHeap top = new TopKHeap(topN);
+        int userOffset = user * factors;
+        for (int article = 0; article < articleIds.length; article++) {
+            if (!candidate.test(articleIds[article])) continue;
+            top.offer(articleIds[article], dot(userFactors, userOffset, articleFactors, article * factors, factors));
+        }
+        return top.drain();
+    }
+
+    // Factor vector of a user or article (copied), or null if unknown; used to warm-start retraining
+    float[] userVector(int userId) {
+        int user = Arrays.binarySearch(userIds, userId);
+        return user < 0 ? null : Arrays.copyOfRange(userFactors, user * factors, (user + 1) * factors);
+    }
+
+    float[] articleVector(int articleId) {
+        int article = Arrays.binarySearch(articleIds, articleId);
+        return article < 0 ? null : Arrays.copyOfRange(articleFactors, article * factors, (article + 1) * factors);
+    }
+
+    static double dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        double sum = 0.0;
+        for (int d = 0; d < length; d++) {
+            sum += a[aOffset + d] * b[bOffset + d];
+        }
+        return sum;
+    }
+
+    // Writes the model to a temporary file and moves it into place, so readers never see a partial file
+    public void save(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "als", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(factors);
+                out.writeInt(userIds.length);
+                out.writeInt(articleIds.length);
+                for (int userId : userIds) out.writeInt(userId);
+                for (int articleId : articleIds) out.writeInt(articleId);
+                for (float value : userFactors) out.writeFloat(value);
+                for (float value : articleFactors) out.writeFloat(value);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Reads a model written by save(), or returns null if the file does not exist
+    public static AlsModel load(Path file) throws IOException {
+        if (!Files.exists(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not an ALS model file: " + file);
+            int factors = in.readInt();
+            int[] userIds = new int[in.readInt()];
+            int[] articleIds = new int[in.readInt()];
+            for (int i = 0; i < userIds.length; i++) userIds[i] = in.readInt();
+            for (int i = 0; i < articleIds.length; i++) articleIds[i] = in.readInt();
+            float[] userFactors = new float[userIds.length * factors];
+            float[] articleFactors = new float[articleIds.length * factors];
+            for (int i = 0; i < userFactors.length; i++) userFactors[i] = in.readFloat();
+            for (int i = 0; i < articleFactors.length; i++) articleFactors[i] = in.readFloat();
+            return new AlsModel(factors, userIds, articleIds, userFactors, articleFactors);
+        }
+    }
+}
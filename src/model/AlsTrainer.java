@@ -0,0 +1,251 @@
+package model;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Implicit-feedback alternating least squares (Hu, Koren & Volinsky) on the CSR interaction matrix.
+ * Each interaction r becomes a preference p = (r > 0 ? 1 : 0) held with confidence c = 1 + alpha * |r|, so a
+ * dislike is a confident "not interested" rather than a missing value.
+ *
+ * - Each half-step fixes one side and solves every row of the other side independently:
+ *   x_u = (YtY + Yt(C_u - I)Y + lambda * I)^-1 Yt C_u p_u. YtY is computed once per half-step, so a row costs
+ *   O(nnz_u * f^2 + f^3).
+ * - Rows are solved in parallel on a ForkJoinPool; all state lives in flat float arrays.
+ * - Warm start: factors of users and articles known to the previous model are reused, so a retrain after an
+ *   ingestion cycle needs only a few iterations.
+ */
+public class AlsTrainer {
+    private static final int ROWS_PER_TASK = 32; // Leaf size of the parallel split
+
+    private final int factors;
+    private final double regularization;
+    private final double alpha;
+    private final int iterations;
+    private final int warmIterations;
+    private final long seed;
+
+    /**
+     * @param factors        latent dimensions per user and article
+     * @param regularization L2 penalty (lambda)
+     * @param alpha          confidence gained per unit of interaction
+     * @param iterations     full sweeps when training from scratch
+     * @param warmIterations full sweeps when starting from a previous model
+     * @param seed           seed for the random initial factors
+     */
+    public AlsTrainer(int factors, double regularization, double alpha, int iterations, int warmIterations, long seed) {
+        this.factors = factors;
+        this.regularization = regularization;
+        this.alpha = alpha;
+        this.iterations = iterations;
+        this.warmIterations = warmIterations;
+        this.seed = seed;
+    }
+
+    // Trains from scratch
+    public AlsModel train(UserItemMatrix matrix) {
+        return train(matrix, null, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Trains on the matrix, starting from the factors of a previous model where they exist.
+     *
+     * @param previous the model to warm-start from, or null to train from scratch
+     */
+    public AlsModel train(UserItemMatrix matrix, AlsModel previous, ForkJoinPool pool) {
+        int numUsers = matrix.numUsers(), numArticles = matrix.numArticles();
+        int[] userIds = new int[numUsers], articleIds = new int[numArticles];
+        for (int row = 0; row < numUsers; row++) userIds[row] = matrix.userIdAt(row);
+        for (int col = 0; col < numArticles; col++) articleIds[col] = matrix.articleIdAt(col);
+
+        Random random = new Random(seed);
+        float[] userFactors = new float[numUsers * factors];
+        float[] articleFactors = new float[numArticles * factors];
+        int reused = 0;
+        for (int col = 0; col < numArticles; col++) {
+            reused += initialise(articleFactors, col, previous == null ? null : previous.articleVector(articleIds[col]), random);
+        }
+        for (int row = 0; row < numUsers; row++) {
+            initialise(userFactors, row, previous == null ? null : previous.userVector(userIds[row]), random);
+        }
+
+        // Column-major copy of the interactions for the article half-step
+        Transposed byArticle = new Transposed(matrix);
+        int sweeps = previous != null && reused > 0 ? warmIterations : iterations;
+        for (int sweep = 0; sweep < sweeps; sweep++) {
+            solve(pool, userFactors, numUsers, articleFactors, numArticles,
+                    row -> matrix.rowStart(row), row -> matrix.rowEnd(row), matrix::columnAt, matrix::valueAt);
+            solve(pool, articleFactors, numArticles, userFactors, numUsers,
+                    col -> byArticle.start[col], col -> byArticle.start[col + 1], k -> byArticle.rows[k], k -> byArticle.values[k]);
+        }
+        return new AlsModel(factors, userIds, articleIds, userFactors, articleFactors);
+    }
+
+    // Copies the previous vector into place, or fills it with small random values; returns 1 if it was reused
+    private int initialise(float[] target, int index, float[] previousVector, Random random) {
+        if (previousVector != null && previousVector.length == factors) {
+            System.arraycopy(previousVector, 0, target, index * factors, factors);
+            return 1;
+        }
+        for (int d = 0; d < factors; d++) {
+            target[index * factors + d] = (float) (random.nextGaussian() * 0.01);
+        }
+        return 0;
+    }
+
+    // Sparse access to one side of the interactions: row -> [start, end) -> (other side index, value)
+    private interface IntToInt {
+        int apply(int value);
+    }
+
+    private interface IntToFloat {
+        float apply(int value);
+    }
+
+    // Recomputes every vector of 'solved' with 'fixed' held constant
+    private void solve(ForkJoinPool pool, float[] solved, int numSolved, float[] fixed, int numFixed,
+                       IntToInt start, IntToInt end, IntToInt other, IntToFloat value) {
+        double[] gram = gram(fixed, numFixed);
+        pool.invoke(new SolveRows(0, numSolved, solved, fixed, gram, start, end, other, value));
+    }
+
+    // YtY of the fixed side (f x f, row-major)
+    private double[] gram(float[] fixed, int numFixed) {
+        double[] gram = new double[factors * factors];
+        for (int i = 0; i < numFixed; i++) {
+            int offset = i * factors;
+            for (int a = 0; a < factors; a++) {
+                double va = fixed[offset + a];
+                for (int b = a; b < factors; b++) {
+                    gram[a * factors + b] += va * fixed[offset + b];
+                }
+            }
+        }
+        for (int a = 0; a < factors; a++) {
+            for (int b = 0; b < a; b++) {
+                gram[a * factors + b] = gram[b * factors + a];
+            }
+        }
+        return gram;
+    }
+
+    private class SolveRows extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final float[] solved, fixed;
+        private final double[] gram;
+        private final transient IntToInt start, end, other; // Tasks are never serialized
+        private final transient IntToFloat value;
+
+        SolveRows(int from, int to, float[] solved, float[] fixed, double[] gram,
+                  IntToInt start, IntToInt end, IntToInt other, IntToFloat value) {
+            this.from = from;
+            this.to = to;
+            this.solved = solved;
+            this.fixed = fixed;
+            this.gram = gram;
+            this.start = start;
+            this.end = end;
+            this.other = other;
+            this.value = value;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SolveRows(from, middle, solved, fixed, gram, start, end, other, value),
+                        new SolveRows(middle, to, solved, fixed, gram, start, end, other, value));
+                return;
+            }
+            double[] a = new double[factors * factors]; // Scratch buffers, reused for every row of this leaf
+            double[] b = new double[factors];
+            for (int row = from; row < to; row++) {
+                System.arraycopy(gram, 0, a, 0, a.length);
+                Arrays.fill(b, 0.0);
+                for (int d = 0; d < factors; d++) {
+                    a[d * factors + d] += regularization;
+                }
+                for (int k = start.apply(row); k < end.apply(row); k++) {
+                    float interaction = value.apply(k);
+                    double confidence = 1.0 + alpha * Math.abs(interaction);
+                    int offset = other.apply(k) * factors;
+                    for (int i = 0; i < factors; i++) {
+                        double yi = fixed[offset + i];
+                        double scaled = (confidence - 1.0) * yi;
+                        for (int j = 0; j < factors; j++) {
+                            a[i * factors + j] += scaled * fixed[offset + j];
+                        }
+                        if (interaction > 0) b[i] += confidence * yi; // Preference 1 only for positive feedback
+                    }
+                }
+                choleskySolve(a, b, factors);
+                for (int d = 0; d < factors; d++) {
+                    solved[row * factors + d] = (float) b[d];
+                }
+            }
+        }
+    }
+
+    // Solves A x = b in place for a symmetric positive definite A (x is returned in b; A is overwritten)
+    static void choleskySolve(double[] a, double[] b, int n) {
+        for (int j = 0; j < n; j++) {
+            double diagonal = a[j * n + j];
+            for (int k = 0; k < j; k++) {
+                diagonal -= a[j * n + k] * a[j * n + k];
+            }
+            diagonal = Math.sqrt(Math.max(diagonal, 1e-12));
+            a[j * n + j] = diagonal;
+            for (int i = j + 1; i < n; i++) {
+                double sum = a[i * n + j];
+                for (int k = 0; k < j; k++) {
+                    sum -= a[i * n + k] * a[j * n + k];
+                }
+                a[i * n + j] = sum / diagonal;
+            }
+        }
+        for (int i = 0; i < n; i++) { // Forward substitution: L y = b
+            double sum = b[i];
+            for (int k = 0; k < i; k++) sum -= a[i * n + k] * b[k];
+            b[i] = sum / a[i * n + i];
+        }
+        for (int i = n - 1; i >= 0; i--) { // Back substitution: Lt x = y
+            double sum = b[i];
+            for (int k = i + 1; k < n; k++) sum -= a[k * n + i] * b[k];
+            b[i] = sum / a[i * n + i];
+        }
+    }
+
+    // CSC view of a CSR matrix: for each article, the rows (users) that interacted with it
+    private static class Transposed {
+        final int[] start;
+        final int[] rows;
+        final float[] values;
+
+        Transposed(UserItemMatrix matrix) {
+            int numArticles = matrix.numArticles();
+            start = new int[numArticles + 1];
+            rows = new int[matrix.nonZeros()];
+            values = new float[matrix.nonZeros()];
+            for (int k = 0; k < matrix.nonZeros(); k++) {
+                start[matrix.columnAt(k) + 1]++;
+            }
+            for (int col = 0; col < numArticles; col++) {
+                start[col + 1] += start[col];
+            }
+            int[] next = Arrays.copyOf(start, numArticles);
+            for (int row = 0; row < matrix.numUsers(); row++) {
+                for (int k = matrix.rowStart(row); k < matrix.rowEnd(row); k++) {
+                    int slot = next[matrix.columnAt(k)]++;
+                    rows[slot] = row;
+                    values[slot] = matrix.valueAt(k);
+                }
+            }
+        }
+    }
+}
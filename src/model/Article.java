@@ -1,5 +1,6 @@
 package model;
 
+import db.ArticleKeys;
 import db.DBConnection;
 import db.UserManager;
 
@@ -57,28 +58,34 @@ public class Article {
 
     // Displays the article's title and content, then handles user feedback. (Abstraction)
     public static void displayArticles(int articleId, int userId) {
+        String title = null;
+        String content = null;
 
+        // Read the article and release the pooled connection before the (interactive) feedback loop starts
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement("SELECT title, content FROM Articles WHERE id = ?")) {
             pstmt.setInt(1, articleId); // Prevents SQL injection (Security principle)
             ResultSet rs = pstmt.executeQuery();
-            updateInteractionScore(userId, articleId, 1.0f); // Updates interaction score when the article is viewed (Behavior related to interaction)
 
             if (rs.next()) {
-                String title = rs.getString("title");
-                String content = rs.getString("content");
-                System.out.println("\n--- Article Details ---");
-                System.out.println("Title: " + title);
-                System.out.println("Content: ");
-                System.out.println(wrapText(content, 110)); // Text wrapping logic for content display (Encapsulation)
-                System.out.println();
-                handleUserFeedback(userId, articleId);  // Encapsulation: Feedback handling is abstracted into a method.
-
-            } else {
-                System.out.println("Article not found.");
+                title = rs.getString("title");
+                content = rs.getString("content");
             }
         } catch (Exception e) {
             e.printStackTrace();
+            return;
+        }
+        updateInteractionScore(userId, articleId, 1.0f); // Updates interaction score when the article is viewed (Behavior related to interaction)
+
+        if (title != null) {
+            System.out.println("\n--- Article Details ---");
+            System.out.println("Title: " + title);
+            System.out.println("Content: ");
+            System.out.println(wrapText(content, 110)); // Text wrapping logic for content display (Encapsulation)
+            System.out.println();
+            handleUserFeedback(userId, articleId);  // Encapsulation: Feedback handling is abstracted into a method.
+        } else {
+            System.out.println("Article not found.");
         }
     }
 
@@ -129,8 +136,8 @@ public class Article {
 
         if (yesNo == 1) {
             displayTitles(userId);  // Invokes method to display article titles
-        } else {
-            clearExistingNews();    // Another abstraction to clear news articles
+        } else if (!isIncrementalRefresh()) {
+            clearExistingNews();    // Full refresh mode: another abstraction to clear news articles
         }
     }
 
@@ -155,12 +162,12 @@ public class Article {
     // Displays the list of articles for the user. (Uses OOP principles -> abstraction and composition)
     public static void displayTitles(int userId) {
 
-        try (Connection conn = DBConnection.getConnection()) {
+        try {
             Map<String, Integer> userPreferences = UserManager.getUserPreferences(userId);  // Encapsulation: Accessing user preferences
             boolean hasPreferences = userPreferences.values().stream().anyMatch(score -> score > 0);
 
             if (hasPreferences) {
-                List<String> rankedArticles = hybridRecommendations(userId);    // Uses a hybrid recommendation method (Abstraction, Polymorphism)
+                List<Integer> rankedArticles = cachedRecommendations(userId);    // Hybrid recommendations, cached until the user or the articles change (Abstraction, Polymorphism)
                 if (!rankedArticles.isEmpty()) {
                     displayRankedArticles(rankedArticles, userId);  // Polymorphism | Displaying ranked articles
                     return;
@@ -174,12 +181,13 @@ public class Article {
     }
 
     // Displays a ranked list of articles, allowing user to choose one. (Polymorphism | Different behaviors depending on user choice)
-    private static void displayRankedArticles(List<String> rankedArticles, int userId) {
+    // The ranked list carries article ids, so titles come from the in-memory directory and the selection needs no lookup.
+    private static void displayRankedArticles(List<Integer> rankedArticles, int userId) {
         System.out.println("Available Articles (Ranked):");
         int index = 1;
 
-        for (String title : rankedArticles) {
-            System.out.println(index + ": " + title);    // Displays ranked article list
+        for (int rankedId : rankedArticles) {
+            System.out.println(index + ": " + getArticleTitleById(rankedId));    // Displays ranked article list
             index++;
         }
         Scanner scanner = new Scanner(System.in);
@@ -188,8 +196,7 @@ public class Article {
         System.out.println();
 
         if (choice != 0 && choice <= rankedArticles.size()) {
-            String selectedTitle = rankedArticles.get(choice - 1);   // Gets selected article
-            int articleId = getArticleIdByTitle(selectedTitle);      // Encapsulation | Fetches article ID using title
+            int articleId = rankedArticles.get(choice - 1);   // Gets selected article ID
             Map<String, Integer> articleScores = getArticleScores(articleId);   // Fetches article scores based on classification
             setUserPreferences(userId, articleScores);  // Updates user preferences
 
@@ -202,13 +209,14 @@ public class Article {
 
     // Displays a list of all available articles for the user to choose from. (Encapsulation)
     private static void displayAllArticles(int userId) throws SQLException {
+        Map<Integer, Integer> articleMap = new HashMap<>();
 
+        // Read the list and release the pooled connection before waiting on user input
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement()) {
             String query = "SELECT id, title FROM Articles";
             ResultSet rs = stmt.executeQuery(query);
             System.out.println("Available Articles:");
-            Map<Integer, Integer> articleMap = new HashMap<>();
             int index = 1;
 
             while (rs.next()) {
@@ -219,18 +227,18 @@ public class Article {
                 System.out.println(index + ": " + title);
                 index++;
             }
+        }
 
-            Scanner scanner = new Scanner(System.in);
-            System.out.println("Select an article by number (or 0 to exit): ");
-            int choice = scanner.nextInt();
+        Scanner scanner = new Scanner(System.in);
+        System.out.println("Select an article by number (or 0 to exit): ");
+        int choice = scanner.nextInt();
 
-            if (choice != 0 && articleMap.containsKey(choice)) {
-                int articleId = articleMap.get(choice); // Gets article ID from selection
-                Map<String, Integer> articleScores = getArticleScores(articleId);  // Fetches article scores
-                setUserPreferences(userId, articleScores);  // Updates user preferences based on the article
-                displayArticles(articleId, userId);  // Displays the selected article
-                executorService.submit(() -> markSkippedArticles(userId, articleMap.values(), articleId));  // Marks skipped articles asynchronously
-            }
+        if (choice != 0 && articleMap.containsKey(choice)) {
+            int articleId = articleMap.get(choice); // Gets article ID from selection
+            Map<String, Integer> articleScores = getArticleScores(articleId);  // Fetches article scores
+            setUserPreferences(userId, articleScores);  // Updates user preferences based on the article
+            displayArticles(articleId, userId);  // Displays the selected article
+            executorService.submit(() -> markSkippedArticles(userId, articleMap.values(), articleId));  // Marks skipped articles asynchronously
         }
     }
 
@@ -246,12 +254,16 @@ public class Article {
     }
 
     // Retrieves the article ID from its title. (Encapsulation)
+    // Served from the in-memory ArticleDirectory; the query is only a fallback when the directory could not load.
     public static int getArticleIdByTitle(String title) {
+        if (ArticleDirectory.isLoaded()) {
+            return ArticleDirectory.idOf(title);
+        }
         int articleId = -1;
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement("SELECT id FROM Articles WHERE title = ?")) {
-            pstmt.setString(1, title);  // Prepared statement to prevent SQL injection
+             PreparedStatement pstmt = conn.prepareStatement("SELECT id FROM Articles WHERE title_hash = ?")) {
+            pstmt.setBytes(1, ArticleKeys.titleHash(title));  // Point lookup on the unique title hash index
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
@@ -265,6 +277,9 @@ public class Article {
 
     // Retrieves the title of an article using its ID. (Encapsulation)
     public static String getArticleTitleById(int articleId) {
+        if (ArticleDirectory.isLoaded()) {
+            return ArticleDirectory.titleOf(articleId);
+        }
         String query = "SELECT title FROM articles WHERE id = ?";
 
         try (Connection conn = DBConnection.getConnection();
@@ -320,6 +335,7 @@ public class Article {
             pstmt.setString(2, category); // Set the category
             pstmt.setInt(3, keywordCount); // Set the keyword count
             pstmt.executeUpdate(); // Execute the query
+            ContentScorer.put(articleId, Map.of(category, keywordCount)); // Keep the in-memory content vector in step
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,97 @@
+package model;
+
+import db.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory bidirectional article id <-> title directory.
+ * Encapsulation: the whole Articles id/title list is loaded with one query on first use and then kept in step by
+ * the code paths that insert or delete articles, so rendering a ranked list needs no per-item queries.
+ */
+public class ArticleDirectory {
+    private static final Map<Integer, String> titlesById = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> idsByTitle = new ConcurrentHashMap<>();
+
+    // True once the directory mirrors the whole table, so a miss means the article does not exist
+    private static volatile boolean loaded = false;
+
+    // Returns the title of an article, or null if it does not exist
+    public static String titleOf(int articleId) {
+        ensureLoaded();
+        return titlesById.get(articleId);
+    }
+
+    // Returns the id of the article with this title, or -1 if it does not exist
+    public static int idOf(String title) {
+        ensureLoaded();
+        return idsByTitle.getOrDefault(title, -1);
+    }
+
+    // Whether there are no articles to show (also true if the table could not be read)
+    public static boolean isEmpty() {
+        ensureLoaded();
+        return titlesById.isEmpty();
+    }
+
+    // Records a newly stored article (called on ingestion and when the admin adds an article)
+    public static void put(int articleId, String title) {
+        if (articleId <= 0 || title == null) return;
+        String previous = titlesById.put(articleId, title);
+        if (previous != null && !previous.equals(title)) {
+            idsByTitle.remove(previous, articleId);
+        }
+        idsByTitle.putIfAbsent(title, articleId);
+    }
+
+    // Forgets a deleted article
+    public static void remove(int articleId) {
+        String title = titlesById.remove(articleId);
+        if (title != null) {
+            idsByTitle.remove(title, articleId);
+        }
+    }
+
+    // Marks the directory as mirroring an empty Articles table (after all articles were deleted)
+    public static synchronized void clear() {
+        titlesById.clear();
+        idsByTitle.clear();
+        loaded = true;
+    }
+
+    // Drops everything; the next lookup reloads the table
+    public static synchronized void invalidate() {
+        loaded = false;
+        titlesById.clear();
+        idsByTitle.clear();
+    }
+
+    // Loads every id/title pair with a single query the first time the directory is used
+    private static void ensureLoaded() {
+        if (loaded) return;
+        synchronized (ArticleDirectory.class) {
+            if (loaded) return;
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement("SELECT id, title FROM Articles");
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    put(rs.getInt("id"), rs.getString("title"));
+                }
+                loaded = true;
+            } catch (SQLException e) {
+                e.printStackTrace(); // Stay unloaded so callers fall back to the database
+            }
+        }
+    }
+
+    // Whether the directory is authoritative (loaded successfully)
+    static boolean isLoaded() {
+        ensureLoaded();
+        return loaded;
+    }
+}
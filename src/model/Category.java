@@ -104,33 +104,45 @@ public class Category {
         });
     }
 
-    // Method to categorize an article by analyzing its content and matching it with keywords for each category (Encapsulation)
-    // This method encapsulates the logic of categorizing articles based on content analysis.
-    public static Map<String, Integer> categorizeArticle(int articleId, String content) {
-        content = content.toLowerCase();  // Converts content to lowercase for easier keyword matching (Encapsulation)
-        Map<String, Integer> scores = new HashMap<>();  // Stores the score for each category (Encapsulation)
-
-        // Loop over each category and its associated keywords (Polymorphism: The same process is applied to different categories)
-        for (Map.Entry<String, String[]> entry : categories.entrySet()) {
-            String category = entry.getKey();  // Category name (Encapsulation: Limited access to category names)
-            String[] keywords = entry.getValue();  // Keywords for the category (Encapsulation: Limited access to keyword data)
-
-            int score = 0;
-            // Loop through each keyword to check for its occurrence in the article's content (Polymorphism)
-            for (String keyword : keywords) {
-                if (content.contains(keyword.toLowerCase())) {  // Case-insensitive matching (Polymorphism: Same method applies to all keywords)
-                    score++;  // Increases score when a keyword is found (Encapsulation: Internal logic is hidden)
+    // Aho-Corasick automaton compiled from the categories map; rebuilt lazily after the keywords change
+    private static volatile KeywordMatcher matcher;
+
+    // Returns the compiled keyword matcher, compiling it on first use (Encapsulation: callers never see the automaton)
+    private static KeywordMatcher getMatcher() {
+        KeywordMatcher current = matcher;
+        if (current == null) {
+            synchronized (Category.class) {
+                current = matcher;
+                if (current == null) {
+                    current = KeywordMatcher.compile(categories);
+                    matcher = current;
                 }
             }
-            scores.put(category, score);  // Store the score for this category (Encapsulation)
+        }
+        return current;
+    }
 
-            // Determine the top category based on the highest score (Abstraction: Logic for determining top category is abstracted away)
-            String topCategory = getTopCategory(scores);
+    // Must be called after the categories map is modified so the next categorization recompiles the keywords
+    public static synchronized void keywordsChanged() {
+        matcher = null;
+    }
 
-            // Save the keyword count for this category into the database (Abstraction: The implementation of saving data is abstracted)
-            saveArticleClassification(articleId, topCategory, score);
-        }
-        return scores;  // Return the scores map (Encapsulation)
+    // Scores content against every category in one pass over the text, without touching the database
+    public static Map<String, Integer> scoreContent(String content, KeywordMatcher.CountMode mode) {
+        return getMatcher().score(content, mode);
+    }
+
+    // Method to categorize an article by analyzing its content and matching it with keywords for each category (Encapsulation)
+    // This method encapsulates the logic of categorizing articles based on content analysis.
+    public static Map<String, Integer> categorizeArticle(String content) {
+        return categorizeArticle(content, KeywordMatcher.CountMode.DISTINCT_KEYWORDS);
+    }
+
+    // Overload allowing true occurrence counts instead of distinct keyword counts (Polymorphism: method overloading)
+    // Only scores the content; the caller persists the scores in one batch (see ClassificationWriter)
+    public static Map<String, Integer> categorizeArticle(String content, KeywordMatcher.CountMode mode) {
+        // Single scan of the content for all keywords of all categories (Encapsulation)
+        return scoreContent(content, mode);
     }
 
     // Method to get the category with the highest score (Abstraction)
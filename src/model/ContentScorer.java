@@ -0,0 +1,197 @@
+package model;
+
+import db.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory content-based scorer.
+ * Encapsulation: keeps one dense float vector of category keyword counts per article, loaded from
+ * article_classification with a single query on first use and then kept in step by the code paths that classify or
+ * delete articles. Ranking a user is the preference-weighted sum of those counts, selected with a bounded top-K
+ * heap, so it touches neither the database nor more memory than the vectors themselves.
+ *
+ * Vectors are replaced, never modified in place, so readers can rank without locking.
+ */
+public class ContentScorer {
+    private static final Map<String, Integer> categoryIndexes = new ConcurrentHashMap<>(); // Category -> vector slot
+    private static final Map<Integer, float[]> vectors = new ConcurrentHashMap<>();        // Article id -> keyword counts
+
+    private static final AtomicLong version = new AtomicLong(); // Bumped on every change of the vectors
+
+    // True once the vectors mirror the whole classification table
+    private static volatile boolean loaded = false;
+
+    /**
+     * Ranks the classified articles by the sum of keyword count * preference score over the user's categories.
+     *
+     * @param preferences category -> preference score of the user
+     * @param topK        maximum number of articles returned
+     * @return article ids with a positive score, best first (empty if the user has no preferences)
+     */
+    public static List<Integer> rank(Map<String, Integer> preferences, int topK) {
+        return score(preferences, topK).ids();
+    }
+
+    // Same ranking, keeping the scores (used by the hybrid fusion)
+    public static RankedArticles score(Map<String, Integer> preferences, int topK) {
+        ensureLoaded();
+        return score(vectors, categoryIndexes, preferences, topK);
+    }
+
+    /**
+     * Immutable view of the article vectors at one point in time, for batch jobs that rank many users against the
+     * same article set. Taking it copies only references: vectors are never modified in place.
+     */
+    public static final class Snapshot {
+        private final Map<Integer, float[]> vectors;
+        private final Map<String, Integer> categoryIndexes;
+
+        private Snapshot(Map<Integer, float[]> vectors, Map<String, Integer> categoryIndexes) {
+            this.vectors = vectors;
+            this.categoryIndexes = categoryIndexes;
+        }
+
+        public RankedArticles score(Map<String, Integer> preferences, int topK) {
+            return ContentScorer.score(vectors, categoryIndexes, preferences, topK);
+        }
+
+        public boolean contains(int articleId) {
+            return vectors.containsKey(articleId);
+        }
+
+        public int size() {
+            return vectors.size();
+        }
+    }
+
+    public static Snapshot snapshot() {
+        ensureLoaded();
+        return new Snapshot(Map.copyOf(vectors), Map.copyOf(categoryIndexes));
+    }
+
+    private static RankedArticles score(Map<Integer, float[]> vectors, Map<String, Integer> categoryIndexes,
+                                        Map<String, Integer> preferences, int topK) {
+        if (preferences.isEmpty() || topK <= 0) return RankedArticles.EMPTY;
+
+        // Sparse view of the preference vector: only categories the articles were classified in can contribute
+        int[] slots = new int[preferences.size()];
+        float[] weights = new float[preferences.size()];
+        int used = 0;
+        for (Map.Entry<String, Integer> preference : preferences.entrySet()) {
+            Integer slot = categoryIndexes.get(preference.getKey());
+            if (slot == null || preference.getValue() == 0) continue;
+            slots[used] = slot;
+            weights[used] = preference.getValue();
+            used++;
+        }
+        if (used == 0) return RankedArticles.EMPTY; // No preference matches a classified category
+
+        TopKHeap top = new TopKHeap(topK);
+        for (Map.Entry<Integer, float[]> article : vectors.entrySet()) {
+            float[] counts = article.getValue();
+            float score = 0f;
+            for (int i = 0; i < used; i++) {
+                if (slots[i] < counts.length) score += counts[slots[i]] * weights[i];
+            }
+            if (score > 0f) top.offer(article.getKey(), score); // Unrelated or disliked articles are not recommended
+        }
+        return top.drain();
+    }
+
+    /**
+     * Records the category keyword counts of a classified article (called after they were written to
+     * article_classification). Categories not mentioned keep their previous count, matching the upsert.
+     */
+    public static synchronized void put(int articleId, Map<String, Integer> scores) {
+        if (!loaded || scores.isEmpty()) return; // Not loaded yet: the first load reads the committed rows
+        apply(articleId, scores);
+    }
+
+    // Forgets a deleted article
+    public static void remove(int articleId) {
+        vectors.remove(articleId);
+        version.incrementAndGet();
+    }
+
+    // Marks the scorer as mirroring an empty table (after all articles were deleted)
+    public static synchronized void clear() {
+        vectors.clear();
+        loaded = true;
+        version.incrementAndGet();
+    }
+
+    // Drops everything; the next ranking reloads the table
+    public static synchronized void invalidate() {
+        loaded = false;
+        vectors.clear();
+        version.incrementAndGet();
+    }
+
+    // Version stamp of the scored article set: changes whenever an article is classified, reclassified or deleted
+    public static long version() {
+        return version.get();
+    }
+
+    private static void apply(int articleId, Map<String, Integer> scores) {
+        for (String category : scores.keySet()) {
+            slotOf(category);
+        }
+        float[] previous = vectors.get(articleId);
+        float[] counts = previous == null
+                ? new float[categoryIndexes.size()] : Arrays.copyOf(previous, Math.max(previous.length, categoryIndexes.size()));
+        for (Map.Entry<String, Integer> score : scores.entrySet()) {
+            counts[categoryIndexes.get(score.getKey())] = score.getValue();
+        }
+        vectors.put(articleId, counts);
+        version.incrementAndGet();
+    }
+
+    // Slots are only ever appended, so existing vectors stay valid (shorter vectors read as 0 beyond their end)
+    private static int slotOf(String category) {
+        Integer slot = categoryIndexes.get(category);
+        if (slot != null) return slot;
+        synchronized (categoryIndexes) {
+            return categoryIndexes.computeIfAbsent(category, name -> categoryIndexes.size());
+        }
+    }
+
+    // Loads every classification row of a stored article with a single query the first time the scorer is used
+    private static void ensureLoaded() {
+        if (loaded) return;
+        synchronized (ContentScorer.class) {
+            if (loaded) return;
+            String query = "SELECT ac.article_id, ac.category, ac.keyword_count FROM article_classification ac " +
+                    "JOIN Articles a ON a.id = ac.article_id ORDER BY ac.article_id";
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(query);
+                 ResultSet rs = pstmt.executeQuery()) {
+                int currentId = -1;
+                Map<String, Integer> current = new HashMap<>();
+                while (rs.next()) {
+                    int articleId = rs.getInt("article_id");
+                    if (articleId != currentId && !current.isEmpty()) {
+                        apply(currentId, current);
+                        current.clear();
+                    }
+                    currentId = articleId;
+                    current.put(rs.getString("category"), rs.getInt("keyword_count"));
+                }
+                if (!current.isEmpty()) apply(currentId, current);
+                loaded = true;
+            } catch (SQLException e) {
+                vectors.clear();
+                e.printStackTrace(); // Stay unloaded and retry on the next ranking
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from int keys to double values.
+ * Encapsulation: keeps keys and values in primitive arrays so the recommendation models can hold
+ * millions of entries without boxing every key and value.
+ */
+public class IntDoubleMap {
+    private static final int FREE = Integer.MIN_VALUE; // Sentinel for an empty slot; not a valid id
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private double[] values;
+    private int size;
+    private int threshold;
+
+    // Callback used to visit entries without boxing
+    public interface Visitor {
+        void visit(int key, double value);
+    }
+
+    public IntDoubleMap() {
+        this(8);
+    }
+
+    public IntDoubleMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        values = new double[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return keys[slotOf(key)] == key;
+    }
+
+    public double get(int key) {
+        return getOrDefault(key, 0.0);
+    }
+
+    public double getOrDefault(int key, double defaultValue) {
+        int slot = slotOf(key);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    public void put(int key, double value) {
+        int slot = slotOf(key);
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            if (++size > threshold) {
+                values[slot] = value;
+                rehash(keys.length << 1);
+                return;
+            }
+        }
+        values[slot] = value;
+    }
+
+    // Adds delta to the value stored for key (starting from 0) and returns the new value
+    public double add(int key, double delta) {
+        int slot = slotOf(key);
+        if (keys[slot] != key) {
+            put(key, delta);
+            return delta;
+        }
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    public void remove(int key) {
+        int slot = slotOf(key);
+        if (keys[slot] != key) return;
+        keys[slot] = FREE;
+        size--;
+        // Re-insert the rest of the probe chain so lookups never stop at the hole we just made
+        int mask = keys.length - 1;
+        for (int i = (slot + 1) & mask; keys[i] != FREE; i = (i + 1) & mask) {
+            int movedKey = keys[i];
+            double movedValue = values[i];
+            keys[i] = FREE;
+            int target = slotOf(movedKey);
+            keys[target] = movedKey;
+            values[target] = movedValue;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                visitor.visit(keys[i], values[i]);
+            }
+        }
+    }
+
+    // Copies the keys into a new array (iteration order is unspecified)
+    public int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int key : keys) {
+            if (key != FREE) result[n++] = key;
+        }
+        return result;
+    }
+
+    // Linear probing: returns the slot holding key, or the free slot where it would go
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        double[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
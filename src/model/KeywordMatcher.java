@@ -0,0 +1,194 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton compiled from the category keyword map.
+ * Encapsulation: the whole keyword set is matched in a single case-insensitive pass over the text, instead of
+ * one String.contains scan per keyword. Matches must sit on word boundaries, so "ai" no longer matches "said".
+ */
+public class KeywordMatcher {
+
+    // How keyword hits are turned into a category score
+    public enum CountMode {
+        DISTINCT_KEYWORDS, // Each keyword counts once if it occurs at all (the original scoring)
+        OCCURRENCES        // Every occurrence of every keyword counts
+    }
+
+    private final String[] categoryNames;   // Category index -> category name
+    private final int[] patternCategory;    // Pattern index -> category index
+    private final int[] patternLength;      // Pattern index -> keyword length in chars
+    private final boolean[] patternStartsWord; // Pattern's first char is a letter/digit (needs a boundary before it)
+    private final boolean[] patternEndsWord;   // Pattern's last char is a letter/digit (needs a boundary after it)
+
+    private final char[] alphabet;          // Sorted distinct keyword chars; char class = index + 1, 0 = any other char
+    private final int[] asciiClass = new int[128]; // Fast path for the char classes of ASCII text
+    private final int classes;
+    private final int[] transitions;        // Full DFA: transitions[state * classes + charClass] -> next state
+    private final int[][] outputs;          // Patterns ending exactly at each state
+    private final int[] outputLink;         // Nearest proper suffix state with outputs, or -1
+
+    private KeywordMatcher(String[] categoryNames, List<String> patterns, List<Integer> categoryOfPattern) {
+        this.categoryNames = categoryNames;
+        int numPatterns = patterns.size();
+        patternCategory = new int[numPatterns];
+        patternLength = new int[numPatterns];
+        patternStartsWord = new boolean[numPatterns];
+        patternEndsWord = new boolean[numPatterns];
+
+        StringBuilder chars = new StringBuilder();
+        for (int p = 0; p < numPatterns; p++) {
+            String pattern = patterns.get(p);
+            patternCategory[p] = categoryOfPattern.get(p);
+            patternLength[p] = pattern.length();
+            patternStartsWord[p] = isWordChar(pattern.charAt(0));
+            patternEndsWord[p] = isWordChar(pattern.charAt(pattern.length() - 1));
+            chars.append(pattern);
+        }
+        alphabet = chars.chars().distinct().sorted().collect(StringBuilder::new, StringBuilder::appendCodePoint,
+                StringBuilder::append).toString().toCharArray();
+        classes = alphabet.length + 1;
+        for (int i = 0; i < alphabet.length; i++) {
+            if (alphabet[i] < 128) asciiClass[alphabet[i]] = i + 1;
+        }
+
+        // Build the trie; 0 is the root and -1 marks a missing edge
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> stateOutputs = new ArrayList<>();
+        trie.add(newRow());
+        stateOutputs.add(new ArrayList<>());
+        for (int p = 0; p < numPatterns; p++) {
+            int state = 0;
+            for (char c : patterns.get(p).toCharArray()) {
+                int cls = charClass(c);
+                if (trie.get(state)[cls] == -1) {
+                    trie.get(state)[cls] = trie.size();
+                    trie.add(newRow());
+                    stateOutputs.add(new ArrayList<>());
+                }
+                state = trie.get(state)[cls];
+            }
+            stateOutputs.get(state).add(p);
+        }
+
+        // Breadth-first pass computing failure links and turning the trie into a full DFA
+        int numStates = trie.size();
+        transitions = new int[numStates * classes];
+        outputs = new int[numStates][];
+        outputLink = new int[numStates];
+        int[] failure = new int[numStates];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+        outputLink[0] = -1;
+        for (int cls = 0; cls < classes; cls++) {
+            int next = trie.get(0)[cls];
+            if (next == -1) {
+                transitions[cls] = 0;
+            } else {
+                transitions[cls] = next;
+                failure[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int fail = failure[state];
+            outputLink[state] = stateOutputs.get(fail).isEmpty() ? outputLink[fail] : fail;
+            for (int cls = 0; cls < classes; cls++) {
+                int next = trie.get(state)[cls];
+                if (next == -1) {
+                    transitions[state * classes + cls] = transitions[fail * classes + cls];
+                } else {
+                    transitions[state * classes + cls] = next;
+                    failure[next] = transitions[fail * classes + cls];
+                    queue.add(next);
+                }
+            }
+        }
+        for (int state = 0; state < numStates; state++) {
+            outputs[state] = stateOutputs.get(state).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Compiles a category -> keywords map into a matcher. Keywords are lowercased; duplicates inside a category
+     * are kept so that distinct-keyword scores stay identical to counting each keyword entry.
+     */
+    public static KeywordMatcher compile(Map<String, String[]> categories) {
+        String[] categoryNames = categories.keySet().toArray(new String[0]);
+        List<String> patterns = new ArrayList<>();
+        List<Integer> categoryOfPattern = new ArrayList<>();
+        for (int c = 0; c < categoryNames.length; c++) {
+            for (String keyword : categories.get(categoryNames[c])) {
+                if (keyword == null || keyword.isBlank()) continue;
+                patterns.add(keyword.toLowerCase());
+                categoryOfPattern.add(c);
+            }
+        }
+        return new KeywordMatcher(categoryNames, patterns, categoryOfPattern);
+    }
+
+    public String[] getCategoryNames() {
+        return categoryNames.clone();
+    }
+
+    /**
+     * Scans the text once and returns the score of each category, indexed like {@link #getCategoryNames()}.
+     */
+    public int[] countMatches(String text, CountMode mode) {
+        int[] counts = new int[categoryNames.length];
+        boolean[] seen = mode == CountMode.DISTINCT_KEYWORDS ? new boolean[patternCategory.length] : null;
+
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * classes + charClass(Character.toLowerCase(text.charAt(i)))];
+            for (int s = outputs[state].length > 0 ? state : outputLink[state]; s > 0; s = outputLink[s]) {
+                for (int pattern : outputs[s]) {
+                    if (seen != null && seen[pattern]) continue;
+                    if (!onWordBoundary(text, i, pattern)) continue;
+                    if (seen != null) seen[pattern] = true;
+                    counts[patternCategory[pattern]]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    // Convenience wrapper returning category name -> score
+    public Map<String, Integer> score(String text, CountMode mode) {
+        int[] counts = countMatches(text, mode);
+        Map<String, Integer> scores = new HashMap<>();
+        for (int c = 0; c < categoryNames.length; c++) {
+            scores.put(categoryNames[c], counts[c]);
+        }
+        return scores;
+    }
+
+    // A match ending at 'end' must not be glued to letters/digits on either side
+    private boolean onWordBoundary(String text, int end, int pattern) {
+        int start = end - patternLength[pattern] + 1;
+        if (patternStartsWord[pattern] && start > 0 && isWordChar(text.charAt(start - 1))) return false;
+        return !patternEndsWord[pattern] || end + 1 >= text.length() || !isWordChar(text.charAt(end + 1));
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    private int charClass(char c) {
+        if (c < 128) return asciiClass[c];
+        int index = Arrays.binarySearch(alphabet, c);
+        return index >= 0 ? index + 1 : 0;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[classes];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -0,0 +1,111 @@
+package model;
+
+import db.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Banded LSH index over article SimHash signatures.
+ * Encapsulation: the 64-bit signature is split into BANDS bands of 8 bits and every article is filed under each of
+ * its band values. Two signatures at most MAX_DISTANCE bits apart must agree on at least one band (pigeonhole), so a
+ * lookup only compares against the articles sharing a band instead of scanning the table. Signatures are loaded from
+ * Articles.simhash on first use and kept in step by ingestion and deletes, like ArticleDirectory.
+ */
+public class NearDuplicateIndex {
+    private static final int BANDS = 8;
+    private static final int BAND_BITS = 64 / BANDS;
+
+    // Signatures this close are treated as the same story (must stay below BANDS for the band lookup to find them)
+    public static final int MAX_DISTANCE = 6;
+
+    private static final Map<Integer, Long> signaturesById = new HashMap<>(); // guarded by the class monitor
+    private static final Map<Integer, List<Integer>> buckets = new HashMap<>(); // (band, band value) -> article ids; guarded by the class monitor
+    private static boolean loaded = false;
+
+    /**
+     * Returns the id of a stored article whose signature is within MAX_DISTANCE of the given one, or -1 if there is none.
+     */
+    public static synchronized int findNearDuplicate(long signature) {
+        if (signature == 0L) return -1;
+        ensureLoaded();
+        int best = -1;
+        int bestDistance = MAX_DISTANCE + 1;
+        for (int band = 0; band < BANDS; band++) {
+            List<Integer> candidates = buckets.get(bucketKey(band, signature));
+            if (candidates == null) continue;
+            for (int articleId : candidates) {
+                int distance = SimHash.distance(signature, signaturesById.get(articleId));
+                if (distance < bestDistance || (distance == bestDistance && articleId < best)) {
+                    best = articleId; // Closest match; ties go to the oldest article
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Files (or re-files) an article under its signature
+    public static synchronized void put(int articleId, long signature) {
+        if (articleId <= 0 || signature == 0L) return;
+        if (!loaded) return; // The whole table (including this row) is read on first use
+        removeFromBuckets(articleId);
+        signaturesById.put(articleId, signature);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bucketKey(band, signature), key -> new ArrayList<>(1)).add(articleId);
+        }
+    }
+
+    // Forgets a deleted article
+    public static synchronized void remove(int articleId) {
+        removeFromBuckets(articleId);
+    }
+
+    // Marks the index as mirroring an empty Articles table
+    public static synchronized void clear() {
+        signaturesById.clear();
+        buckets.clear();
+        loaded = true;
+    }
+
+    private static void removeFromBuckets(int articleId) {
+        Long previous = signaturesById.remove(articleId);
+        if (previous == null) return;
+        for (int band = 0; band < BANDS; band++) {
+            int key = bucketKey(band, previous);
+            List<Integer> ids = buckets.get(key);
+            if (ids == null) continue;
+            ids.remove(Integer.valueOf(articleId));
+            if (ids.isEmpty()) buckets.remove(key);
+        }
+    }
+
+    private static int bucketKey(int band, long signature) {
+        int value = (int) ((signature >>> (band * BAND_BITS)) & ((1L << BAND_BITS) - 1));
+        return (band << BAND_BITS) | value;
+    }
+
+    // Loads every stored signature with a single query the first time the index is used
+    private static void ensureLoaded() {
+        if (loaded) return;
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT id, simhash FROM Articles WHERE simhash IS NOT NULL");
+             ResultSet rs = pstmt.executeQuery()) {
+            loaded = true;
+            while (rs.next()) {
+                put(rs.getInt("id"), rs.getLong("simhash"));
+            }
+        } catch (SQLException e) {
+            loaded = false;
+            signaturesById.clear();
+            buckets.clear();
+            e.printStackTrace(); // Stay unloaded; lookups find nothing until the table can be read
+        }
+    }
+}
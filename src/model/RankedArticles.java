@@ -0,0 +1,28 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A scored candidate list from one recommender, best first.
+ *
+ * @param articleIds the candidate article ids
+ * @param scores     the recommender's raw score of each candidate (same order; not comparable across recommenders)
+ */
+public record RankedArticles(int[] articleIds, double[] scores) {
+
+    public static final RankedArticles EMPTY = new RankedArticles(new int[0], new double[0]);
+
+    public int size() {
+        return articleIds.length;
+    }
+
+    // Boxes the ids for callers that render or store the list
+    public List<Integer> ids() {
+        List<Integer> ids = new ArrayList<>(articleIds.length);
+        for (int articleId : articleIds) {
+            ids.add(articleId);
+        }
+        return ids;
+    }
+}
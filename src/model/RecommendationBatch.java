@@ -0,0 +1,132 @@
+package model;
+
+import db.RecommendationWriter;
+import db.UserManager;
+
+import java.io.Serial;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Offline batch job that precomputes every user's hybrid recommendations into user_recommendations.
+ * Concurrency: the user base is split recursively across a ForkJoinPool. All workers share one read-only snapshot
+ * of the inputs, taken once before the split:
+ *
+ * - the article category vectors (ContentScorer.Snapshot),
+ * - a private similarity model built from the interactions table,
+ * - the ALS factor model, retrained (warm-started) at the start of the run,
+ * - every user's preferences, read with a single query.
+ *
+ * Finished lists go to a shared RecommendationWriter that writes multi-row batches. Logins then read the stored
+ * list instead of ranking on the interactive path (see RecommendationSystem.cachedRecommendations).
+ */
+public class RecommendationBatch {
+    private static final int USERS_PER_TASK = 64;    // Leaf size of the recursive split
+    private static final int WRITE_BATCH_ROWS = 1000; // Rows per database round trip
+
+    // Throughput and memory figures of one run
+    public record Report(int users, long rowsWritten, long elapsedMillis, long peakHeapBytes) {
+        public double usersPerSecond() {
+            return elapsedMillis == 0 ? users : users * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("recommendation batch: %d users in %d ms (%.1f users/s), %d rows written, peak heap %d MB",
+                    users, elapsedMillis, usersPerSecond(), rowsWritten, peakHeapBytes / (1024 * 1024));
+        }
+    }
+
+    // Splits a range of users in half until it is small enough to rank directly
+    private static class RankUsers extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int[] userIds;
+        private final int from, to;
+        private final transient Snapshot snapshot; // Tasks are never serialized
+
+        RankUsers(int[] userIds, int from, int to, Snapshot snapshot) {
+            this.userIds = userIds;
+            this.from = from;
+            this.to = to;
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= USERS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    snapshot.rank(userIds[i]);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RankUsers(userIds, from, middle, snapshot), new RankUsers(userIds, middle, to, snapshot));
+        }
+    }
+
+    // The shared, read-only inputs of one run and the sink for its results
+    private record Snapshot(Map<Integer, Map<String, Integer>> preferences, ContentScorer.Snapshot articles,
+                            UserSimilarityModel similarities, AlsModel factors, RecommendationWriter writer,
+                            AtomicInteger ranked) {
+        void rank(int userId) {
+            RankedArticles list = RecommendationSystem.hybridRecommendations(userId, preferences.get(userId), articles,
+                    similarities, factors);
+            writer.add(userId, list.articleIds(), list.scores());
+            ranked.incrementAndGet();
+        }
+    }
+
+    /**
+     * Precomputes and stores the recommendations of every user, using all available processors.
+     *
+     * @return the run's throughput and peak heap usage
+     */
+    public static Report run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    public static Report run(ForkJoinPool pool) {
+        resetPeakHeap();
+        AlsModel factors = RecommendationSystem.MatrixFactorizationRecommendation.retrain();
+        long startedAt = System.currentTimeMillis(); // Lists are stamped with the time their inputs were read
+
+        UserSimilarityModel similarities = RecommendationSystem.CollaborativeFilteringRecommendation.loadSimilaritySnapshot();
+        if (similarities == null) { // Queued interactions could not be written: keep the previous lists
+            return new Report(0, 0, System.currentTimeMillis() - startedAt, peakHeap());
+        }
+        Map<Integer, Map<String, Integer>> preferences = UserManager.getAllUserPreferences();
+        Snapshot snapshot = new Snapshot(preferences, ContentScorer.snapshot(), similarities, factors,
+                new RecommendationWriter(WRITE_BATCH_ROWS, startedAt), new AtomicInteger());
+
+        int[] userIds = preferences.keySet().stream().mapToInt(Integer::intValue).toArray();
+        pool.invoke(new RankUsers(userIds, 0, userIds.length, snapshot));
+        snapshot.writer().flush();
+
+        return new Report(snapshot.ranked().get(), snapshot.writer().getRowsWritten(),
+                System.currentTimeMillis() - startedAt, peakHeap());
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) pool.resetPeakUsage();
+        }
+    }
+
+    // Sum of the per-pool peaks since the last reset (an upper bound: pools do not all peak at the same moment)
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid() && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
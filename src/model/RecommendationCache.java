@@ -0,0 +1,105 @@
+package model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded per-user cache of ranked recommendation lists.
+ * Encapsulation: an entry remembers the version stamps it was computed under, and is served only while they still
+ * match and it is younger than the TTL.
+ *
+ * - The user stamp is bumped whenever that user's preferences or interactions change (userChanged). Stamps are
+ *   wall-clock millis, so they can also be compared with the time a precomputed list was computed.
+ * - The article stamp comes from the article side (a new, reclassified or deleted article changes it).
+ * - Changes by other users (collaborative neighbours) are only picked up when the TTL expires.
+ * - At most maxUsers lists are kept; the least recently used ones are evicted.
+ */
+public class RecommendationCache {
+
+    // A cached list with the stamps it was computed under
+    private record Entry(List<Integer> articleIds, long userVersion, long articleVersion, long computedAtMillis) {
+    }
+
+    private final int maxUsers;
+    private final long ttlMillis;
+    private final LongSupplier articleVersion;
+    private final Map<Integer, Entry> entries;                                     // LRU order, guarded by 'this'
+    private final Map<Integer, Long> userVersions = new ConcurrentHashMap<>();     // User id -> stamp of last change
+    private final AtomicLong clock = new AtomicLong();                             // Strictly increasing wall-clock millis
+
+    // Metrics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxUsers       maximum number of users whose lists are kept in memory
+     * @param ttlMillis      maximum age of a served list
+     * @param articleVersion current version of the article set
+     */
+    public RecommendationCache(int maxUsers, long ttlMillis, LongSupplier articleVersion) {
+        this.maxUsers = maxUsers;
+        this.ttlMillis = ttlMillis;
+        this.articleVersion = articleVersion;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                return size() > RecommendationCache.this.maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Returns the user's cached list, or computes, caches and returns it if there is no valid entry.
+     * The computation runs outside the lock; stamps are read before it starts, so a change that happens while it
+     * runs leaves the new entry already stale.
+     */
+    public List<Integer> get(int userId, Supplier<List<Integer>> compute) {
+        long userStamp = userVersions.getOrDefault(userId, 0L);
+        long articleStamp = articleVersion.getAsLong();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = entries.get(userId);
+            if (entry != null && entry.userVersion() == userStamp && entry.articleVersion() == articleStamp
+                    && now - entry.computedAtMillis() < ttlMillis) {
+                hits.incrementAndGet();
+                return entry.articleIds();
+            }
+        }
+        misses.incrementAndGet();
+        List<Integer> articleIds = List.copyOf(compute.get());
+        synchronized (this) {
+            entries.put(userId, new Entry(articleIds, userStamp, articleStamp, now));
+        }
+        return articleIds;
+    }
+
+    // Invalidates the user's list (their preferences or interactions changed)
+    public void userChanged(int userId) {
+        long now = System.currentTimeMillis();
+        userVersions.put(userId, clock.updateAndGet(last -> Math.max(last + 1, now)));
+    }
+
+    // When the user last changed in this process (epoch millis), or 0 if they have not; lists computed from data read
+    // before this moment are out of date
+    public long lastChange(int userId) {
+        return userVersions.getOrDefault(userId, 0L);
+    }
+
+    // Drops every cached list
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public String getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return "hits=" + hits.get() + ", misses=" + misses.get() + ", cachedUsers=" + size;
+    }
+}
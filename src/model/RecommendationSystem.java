@@ -1,71 +1,79 @@
 package model;
 
 import db.DBConnection;
+import db.InteractionWriter;
+import db.RecommendationWriter;
 import db.UserManager;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
+import java.util.function.IntPredicate;
 
 import static db.UserManager.*;
 import static model.Article.getArticleTitleById;
 
 public class RecommendationSystem {
 
-    // Constants for combining different recommendation sources (Content-based and Collaborative)
-    private static final double CONTENT_WEIGHT = 0.5;
-    private static final double COLLABORATIVE_WEIGHT = 0.5;
+    // Weights for combining different recommendation sources (Content-based, Collaborative and Matrix factorisation);
+    // override with -Drecommend.contentWeight / -Drecommend.collaborativeWeight / -Drecommend.factorizationWeight
+    // (0 disables ALS) / -Drecommend.normalization=RECIPROCAL_RANK
+    private static final double CONTENT_WEIGHT = Double.parseDouble(System.getProperty("recommend.contentWeight", "0.5"));
+    private static final double COLLABORATIVE_WEIGHT = Double.parseDouble(System.getProperty("recommend.collaborativeWeight", "0.5"));
+    private static final ScoreFusion.Normalization FUSION_NORMALIZATION =
+            ScoreFusion.Normalization.valueOf(System.getProperty("recommend.normalization", "MIN_MAX"));
+    private static final int CONTENT_TOP_K = 50;        // Content-based candidates ranked per request
+    private static final int COLLABORATIVE_TOP_K = 5;   // Collaborative candidates ranked per request
+    private static final int HYBRID_TOP_K = 50;         // Articles shown after fusion
+    private static final double FACTORIZATION_WEIGHT = Double.parseDouble(System.getProperty("recommend.factorizationWeight", "0.5"));
+    private static final int FACTORIZATION_TOP_K = 20;  // Matrix-factorisation candidates ranked per request
+    private static final long PRECOMPUTED_MAX_AGE_MILLIS = 60 * 60 * 1000; // Batch lists older than an hour are ignored
 
     // ReentrantLock for thread-safety during user-related operations
     private static final ReentrantLock lock = new ReentrantLock();
 
+    // Approximate neighbour search settings for collaborative filtering (recall vs. latency trade-off)
+    // (override with -Drecommend.lsh.bands / .bitsPerBand / .maxCandidates / .neighbours / .seed)
+    private static final int LSH_BANDS = Integer.getInteger("recommend.lsh.bands", 8);                 // More bands -> higher recall, more candidates
+    private static final int LSH_BITS_PER_BAND = Integer.getInteger("recommend.lsh.bitsPerBand", 12);  // More bits -> smaller, more similar buckets
+    private static final int LSH_MAX_CANDIDATES = Integer.getInteger("recommend.lsh.maxCandidates", 500); // Upper bound on exact cosines computed per request
+    private static final int NEIGHBOURS_TOP_K = Integer.getInteger("recommend.lsh.neighbours", 50);    // Most similar users that contribute to a recommendation
+    private static final long LSH_SEED = Long.getLong("recommend.lsh.seed", 42L);
+
+    // Write-behind queue for user_article_interactions (bounded buffer, batches of coalesced deltas)
+    private static final InteractionWriter interactionWriter = new InteractionWriter(
+            10_000,  // Queued events before submitters block
+            500,     // Distinct (user, article) pairs per batch
+            1000);   // Maximum delay before a delta is written, in milliseconds
+
+    // Per-user cache of hybrid lists, invalidated by user and article-set version stamps
+    private static final RecommendationCache recommendationCache = new RecommendationCache(
+            1000,             // Users whose lists are kept in memory
+            5 * 60 * 1000,    // Lists older than 5 minutes are recomputed (picks up other users' interactions)
+            ContentScorer::version);
+
+    // Implicit-feedback ALS: 32 factors, lambda 0.1, alpha 10, 15 sweeps from scratch or 3 from the previous model
+    private static final AlsTrainer alsTrainer = new AlsTrainer(32, 0.1, 10.0, 15, 3, 42L);
+    private static final Path ALS_MODEL_FILE = Path.of(System.getProperty("recommend.modelFile", "models/als.bin"));
+
+    // Long-lived collaborative similarity model, kept up to date by updateInteractionScore
+    private static final UserSimilarityModel similarityModel = new UserSimilarityModel(
+            new UserNeighbourIndex(LSH_BANDS, LSH_BITS_PER_BAND, LSH_MAX_CANDIDATES, LSH_SEED), NEIGHBOURS_TOP_K);
+
     // Content-based recommendation (Inner Class)
     public static class ContentBasedRecommendation extends RecommendationSystem {
 
         // Polymorphism | Using the same method (rankArticlesForUser) to rank articles for different users.
-        public static List<String> rankArticlesForUser(int userId) {
-            List<String> rankedArticles = new ArrayList<>();
-            try (Connection conn = DBConnection.getConnection()) {
-                // Retrieve user preferences from db
-                Map<String, Integer> userPreferences = UserManager.getUserPreferences(userId);
-
-                // Prepare the SQL query to rank articles by keyword count for preferred categories
-                String query = """
-            SELECT a.title, SUM(ac.keyword_count * up.score) AS total_score
-            FROM Articles a
-            JOIN article_classification ac ON a.id = ac.article_id
-            JOIN user_preferences up ON ac.category = up.category AND up.user_id = ?
-            WHERE ac.category IN (%s)
-            GROUP BY a.id
-            ORDER BY total_score DESC
-            """;
-
-                // Prepare category placeholders dynamically
-                String categories = String.join(",", Collections.nCopies(userPreferences.size(), "?"));
-                query = String.format(query, categories);
-
-                try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                    int index = 1;
-                    pstmt.setInt(index++, userId); // Set the user ID in the query
-
-                    // Set categories dynamically
-                    for (String category : userPreferences.keySet()) {
-                        pstmt.setString(index++, category);
-                    }
-
-                    ResultSet rs = pstmt.executeQuery();
-                    while (rs.next()) {
-                        rankedArticles.add(rs.getString("title")); // Add titles to the result list
-                    }
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-            return rankedArticles;
+        // Returns article ids, best first; scored in memory by ContentScorer instead of a JOIN/GROUP BY per render
+        public static List<Integer> rankArticlesForUser(int userId) {
+            Map<String, Integer> userPreferences = UserManager.getUserPreferences(userId);
+            return ContentScorer.rank(userPreferences, CONTENT_TOP_K);
         }
     }
 
@@ -117,9 +125,10 @@ public class RecommendationSystem {
 //            return rankedArticles;
 //        }
 
-        private static Map<Integer, Map<Integer, Float>> buildUserItemMatrix() {
-            Map<Integer, Map<Integer, Float>> matrix = new HashMap<>();
-            String query = "SELECT user_id, article_id, interaction FROM user_article_interactions";
+        // Loads the interaction table into a CSR matrix (rows arrive sorted, so the builder does no reordering work)
+        private static UserItemMatrix buildUserItemMatrix() {
+            UserItemMatrix.Builder builder = new UserItemMatrix.Builder();
+            String query = "SELECT user_id, article_id, interaction FROM user_article_interactions ORDER BY user_id, article_id";
             try (Connection conn = DBConnection.getConnection();
                  PreparedStatement pstmt = conn.prepareStatement(query);
                  ResultSet rs = pstmt.executeQuery()) {
@@ -128,151 +137,215 @@ public class RecommendationSystem {
                     int articleId = rs.getInt("article_id");
                     float interaction = rs.getFloat("interaction");
 
-                    matrix.putIfAbsent(userId, new HashMap<>());
-                    matrix.get(userId).put(articleId, interaction);
+                    builder.add(userId, articleId, interaction);
                 }
             } catch (SQLException e) {
                 e.printStackTrace();
             }
-            return matrix;
+            return builder.build();
         }
 
-        private static double calculateCosineSimilarity(Map<Integer, Float> userA, Map<Integer, Float> userB) {
-            // Calculate cosine similarity (for collaborative filtering)
-            double dotProduct = 0.0, normA = 0.0, normB = 0.0;
-            for (Integer articleId : userA.keySet()) {
-                float ratingA = userA.get(articleId);
-                float ratingB = userB.getOrDefault(articleId, 0.0f);
-                dotProduct += ratingA * ratingB;
-                normA += Math.pow(ratingA, 2);
-            }
-            for (float ratingB : userB.values()) {
-                normB += Math.pow(ratingB, 2);
-            }
-            return (dotProduct / (Math.sqrt(normA) * Math.sqrt(normB)));
+        // Returns article ids, best first
+        public static List<Integer> recommendCollaborative(int userId, int topN) {
+            return scoreCollaborative(userId, topN).ids();
         }
 
-        public static List<String> recommendCollaborative(int userId, int topN) {
-            Map<Integer, Map<Integer, Float>> userItemMatrix = buildUserItemMatrix();
-
-            Map<Integer, Map<Integer, Double>> userSimilarities = computeUserSimilarities(userItemMatrix);
-            if (!userSimilarities.containsKey(userId)) return new ArrayList<>();
-
-            // Calculate similarity scores between the target user and other users
-            Map<Integer, Double> scores = new HashMap<>();
-            for (Map.Entry<Integer, Double> entry : userSimilarities.get(userId).entrySet()) {
-                int similarUser = entry.getKey();
-                double similarity = entry.getValue();
+        // Same ranking, keeping the scores (used by the hybrid fusion)
+        public static RankedArticles scoreCollaborative(int userId, int topN) {
+            // Interactions outlive deleted articles, so keep only ids the article directory still knows
+            return scoreCollaborative(getSimilarityModel(), userId, topN, articleId -> getArticleTitleById(articleId) != null);
+        }
 
-                for (Map.Entry<Integer, Float> item : userItemMatrix.getOrDefault(similarUser, Collections.emptyMap()).entrySet()) {
-                    int articleId = item.getKey();
-                    if (!userItemMatrix.get(userId).containsKey(articleId)) { // Skip already interacted items
-                        scores.put(articleId, scores.getOrDefault(articleId, 0.0) + similarity * item.getValue());
-                    }
-                }
-            }
+        static RankedArticles scoreCollaborative(UserSimilarityModel model, int userId, int topN, IntPredicate articleExists) {
+            // Similarities are maintained incrementally; ranking only looks at the user's approximate top-K neighbours
+            IntDoubleMap scores = model.scoreArticles(userId);
+            if (scores.isEmpty()) return RankedArticles.EMPTY;
 
-            // Sort the users by similarity score in descending order
-            return scores.entrySet().stream()
-                    .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed())
-                    .limit(topN)
-                    .map(entry -> getArticleTitleById(entry.getKey()))
-                    .collect(Collectors.toList());
+            TopKHeap top = new TopKHeap(topN);
+            scores.forEach((articleId, score) -> {
+                if (articleExists.test(articleId)) top.offer(articleId, score);
+            });
+            return top.drain();
         }
 
-        // Collaborative Filtering Methods
-        private static Map<Integer, Map<Integer, Double>> computeUserSimilarities(Map<Integer, Map<Integer, Float>> userItemMatrix) {
-            Map<Integer, Map<Integer, Double>> userSimilarities = new HashMap<>();
-            for (Integer userA : userItemMatrix.keySet()) {
-                userSimilarities.putIfAbsent(userA, new HashMap<>());
-                for (Integer userB : userItemMatrix.keySet()) {
-                    if (userA.equals(userB)) continue;
+        // Builds a private similarity model from the current interactions table (a read-only snapshot for batch jobs),
+        // or returns null if queued interactions could not be written first
+        static UserSimilarityModel loadSimilaritySnapshot() {
+            if (!flushInteractions()) return null; // The table must include every queued interaction before it is read
+            UserSimilarityModel snapshot = new UserSimilarityModel(
+                    new UserNeighbourIndex(LSH_BANDS, LSH_BITS_PER_BAND, LSH_MAX_CANDIDATES, LSH_SEED), NEIGHBOURS_TOP_K);
+            snapshot.load(buildUserItemMatrix());
+            return snapshot;
+        }
 
-                    double similarity = calculateCosineSimilarity(userItemMatrix.get(userA), userItemMatrix.get(userB));
-                    userSimilarities.get(userA).put(userB, similarity);
+        // Returns the shared similarity model, loading it from the interactions table on first use
+        static UserSimilarityModel getSimilarityModel() {
+            if (!similarityModel.isLoaded()) {
+                synchronized (similarityModel) {
+                    if (!similarityModel.isLoaded()) {
+                        // Buffer deltas from here on, then write everything submitted earlier; if the write failed,
+                        // stay unloaded (no collaborative scores) and try again on the next request
+                        similarityModel.beginLoad();
+                        if (!flushInteractions()) {
+                            similarityModel.cancelLoad();
+                            return similarityModel;
+                        }
+                        // The read is tagged with the last delta it includes, so the buffered deltas it already
+                        // counted are not replayed
+                        InteractionWriter.Committed<UserItemMatrix> matrix =
+                                interactionWriter.readCommitted(CollaborativeFilteringRecommendation::buildUserItemMatrix);
+                        similarityModel.load(matrix.value(), matrix.through());
+                    }
                 }
             }
-            return userSimilarities;
+            return similarityModel;
         }
     }
 
 
     // Method to update interaction score for a user-article combination
+    // The write is queued on the interaction writer, so the interactive path never waits on the interactions table.
     public static void updateInteractionScore(int userId, int articleId, float interactionScore) {
-        String updateQuery = "INSERT INTO user_article_interactions (user_id, article_id, interaction) " +
-                "VALUES (?, ?, ?) " +
-                "ON DUPLICATE KEY UPDATE interaction = interaction + ?"; // Add to existing interaction score
+        // Keep the in-memory similarities in step with the interaction
+        // Queued first: its sequence number tells the model whether a concurrent load already read it
+        long sequence = interactionWriter.submit(userId, articleId, interactionScore);
+        similarityModel.applyDelta(userId, articleId, interactionScore, sequence);
+        recommendationCache.userChanged(userId);
+    }
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
+    // Blocks until every queued interaction has been written (used before reading the table and on shutdown);
+    // returns false if they could not be written
+    public static boolean flushInteractions() {
+        return interactionWriter.flush();
+    }
 
-            pstmt.setInt(1, userId); // Set user_id
-            pstmt.setInt(2, articleId); // Set article_id
-            pstmt.setFloat(3, interactionScore); // Set the new interaction score (for new record)
-            pstmt.setFloat(4, interactionScore); // Add the interaction score to the existing value
+    // Model-based collaborative filtering (Inner Class): implicit-feedback ALS trained in the JVM, replacing the
+    // MLmodel.py process that was forked per request
+    public static class MatrixFactorizationRecommendation extends RecommendationSystem {
+        private static volatile AlsModel factorModel;
+        private static volatile boolean factorModelRead = false; // The model file was read (factorModel may still be null)
 
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
+        // Returns article ids, best first
+        public static List<Integer> recommendFactorized(int userId, int topN) {
+            return scoreFactorized(userId, topN).ids();
         }
-    }
 
-//    public static List<String> PythonIntegration(int userId) {
-//        List<String> recommendations = new ArrayList<>();
-//        try {
-//            // Specify the Python script path and Python executable
-//            String pythonScriptPath = "MLmodel.py"; // Update with your Python script's path
-//            String pythonExecutable = "python";  // Or specify full path to your python executable if needed
-//
-//            // Create a process to run the Python script with the userId as an argument
-//            ProcessBuilder processBuilder = new ProcessBuilder(pythonExecutable, pythonScriptPath, String.valueOf(userId));
-//            processBuilder.redirectErrorStream(true); // Redirect error to output stream
-//            Process process = processBuilder.start();  // Start the process
-//
-//            // Capture output of the Python script
-//            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-//            String line;
-//            while ((line = reader.readLine()) != null) {
-//                // Assuming the Python script prints the recommendations as a JSON array
-//                // For example: ["101", "102", "103"]
-//                recommendations.add(line);  // Add the line to the list (you may need to parse this)
-//            }
-//
-//            // Wait for the Python process to complete
-//            int exitCode = process.waitFor();
-//            //System.out.println("Python script executed with exit code: " + exitCode);
-//        } catch (IOException | InterruptedException e) {
-//            e.printStackTrace();
-//        }
-//
-//        // Assuming the Python script prints a list of article IDs in JSON format
-//        // You might need to parse the string properly if it's returned in a non-plain format.
-//        return recommendations;
-//    }
+        // Same ranking, keeping the scores (used by the hybrid fusion)
+        public static RankedArticles scoreFactorized(int userId, int topN) {
+            AlsModel model = getFactorModel();
+            if (model == null) return RankedArticles.EMPTY;
+            Set<Integer> seen = seenArticles(CollaborativeFilteringRecommendation.getSimilarityModel(), userId);
+            return model.recommend(userId, topN,
+                    articleId -> !seen.contains(articleId) && getArticleTitleById(articleId) != null);
+        }
 
-    // Method to generate hybrid recommendations by combining content-based and collaborative-based filtering.
-    public static List<String> hybridRecommendations(int userId) {
-        List<String> contentBased = ContentBasedRecommendation.rankArticlesForUser(userId);  // Content-based recommendations
-        List<String> collaborative = CollaborativeFilteringRecommendation.recommendCollaborative(userId,5);  // Collaborative filtering via Python
+        static RankedArticles scoreFactorized(AlsModel model, UserSimilarityModel interactions, int userId, int topN,
+                                              IntPredicate articleExists) {
+            if (model == null) return RankedArticles.EMPTY;
+            Set<Integer> seen = seenArticles(interactions, userId);
+            return model.recommend(userId, topN, articleId -> !seen.contains(articleId) && articleExists.test(articleId));
+        }
 
-        // Combine and rank based on weights
-        Map<String, Double> hybridScores = new HashMap<>();
+        // Already interacted articles are not recommended again
+        private static Set<Integer> seenArticles(UserSimilarityModel interactions, int userId) {
+            Set<Integer> seen = new HashSet<>();
+            for (int articleId : interactions.interactedArticles(userId)) {
+                seen.add(articleId);
+            }
+            return seen;
+        }
 
-        // Add content-based scores
-        for (String article : contentBased) {
-            hybridScores.put(article, hybridScores.getOrDefault(article, 0.0) + CONTENT_WEIGHT);
+        /**
+         * Returns the current factor model, loaded from the model file on first use, or null if there is none yet.
+         * Never trains: that is left to retrain() on the ingestion schedule, so a missing model costs requests one
+         * file check rather than a table scan and a training run each.
+         */
+        static AlsModel getFactorModel() {
+            if (!factorModelRead) {
+                synchronized (MatrixFactorizationRecommendation.class) {
+                    if (!factorModelRead) {
+                        try {
+                            factorModel = AlsModel.load(ALS_MODEL_FILE);
+                        } catch (IOException e) {
+                            e.printStackTrace(); // Unreadable model file: serve without ALS until the next retrain
+                        }
+                        factorModelRead = true;
+                    }
+                }
+            }
+            return factorModel;
         }
 
-        // Add collaborative filtering scores
-        for (String article : collaborative) {
-            hybridScores.put(article, hybridScores.getOrDefault(article, 0.0) + COLLABORATIVE_WEIGHT);
+        /**
+         * Retrains the factors on the current interactions table, warm-starting from the current model, and saves
+         * them to the model file. Called after each ingestion cycle (see RecommendationBatch).
+         */
+        public static synchronized AlsModel retrain() {
+            // The table must include every queued interaction before it is read; otherwise keep the current model
+            if (!flushInteractions()) return getFactorModel();
+            UserItemMatrix matrix = CollaborativeFilteringRecommendation.buildUserItemMatrix();
+            AlsModel previous = getFactorModel(); // Warm-start from the saved model after a restart
+            if (matrix.nonZeros() == 0) return previous;
+            AlsModel model = alsTrainer.train(matrix, previous, ForkJoinPool.commonPool());
+            try {
+                model.save(ALS_MODEL_FILE);
+            } catch (IOException e) {
+                e.printStackTrace(); // Keep serving the new factors; the next retrain tries to save again
+            }
+            factorModel = model;
+            return model;
         }
+    }
+
+    // Returns the user's hybrid recommendations, served from the cache while nothing relevant has changed.
+    // On a miss, the list precomputed by RecommendationBatch is used if the user has not changed since it was computed.
+    public static List<Integer> cachedRecommendations(int userId) {
+        return recommendationCache.get(userId, () -> {
+            long notBefore = Math.max(recommendationCache.lastChange(userId) + 1,
+                    System.currentTimeMillis() - PRECOMPUTED_MAX_AGE_MILLIS);
+            List<Integer> precomputed = RecommendationWriter.load(userId, notBefore);
+            if (precomputed != null) {
+                precomputed.removeIf(articleId -> getArticleTitleById(articleId) == null); // Deleted since the batch ran
+                if (!precomputed.isEmpty()) return precomputed;
+            }
+            return hybridRecommendations(userId);
+        });
+    }
+
+    // Invalidates the user's cached recommendations (called when their preferences change)
+    public static void invalidateRecommendations(int userId) {
+        recommendationCache.userChanged(userId);
+    }
+
+    // Method to generate hybrid recommendations by combining content-based and collaborative-based filtering.
+    // Each recommender's scores are normalised and weighted, then fused per article id (see ScoreFusion).
+    // Ranks article ids; titles are only resolved when the list is rendered
+    public static List<Integer> hybridRecommendations(int userId) {
+        RankedArticles contentBased = ContentScorer.score(UserManager.getUserPreferences(userId), CONTENT_TOP_K);  // Content-based recommendations
+        RankedArticles collaborative = CollaborativeFilteringRecommendation.scoreCollaborative(userId, COLLABORATIVE_TOP_K);  // Collaborative filtering
+        RankedArticles factorized = FACTORIZATION_WEIGHT == 0.0 ? RankedArticles.EMPTY
+                : MatrixFactorizationRecommendation.scoreFactorized(userId, FACTORIZATION_TOP_K);  // Model-based collaborative filtering
+        return fuse(contentBased, collaborative, factorized).ids();
+    }
+
+    // Same ranking from snapshots of the article vectors and the similarity model (used by RecommendationBatch)
+    static RankedArticles hybridRecommendations(int userId, Map<String, Integer> preferences,
+                                                ContentScorer.Snapshot articles, UserSimilarityModel similarities,
+                                                AlsModel factors) {
+        RankedArticles contentBased = articles.score(preferences, CONTENT_TOP_K);
+        RankedArticles collaborative = CollaborativeFilteringRecommendation.scoreCollaborative(
+                similarities, userId, COLLABORATIVE_TOP_K, articles::contains);
+        RankedArticles factorized = FACTORIZATION_WEIGHT == 0.0 ? RankedArticles.EMPTY
+                : MatrixFactorizationRecommendation.scoreFactorized(factors, similarities, userId, FACTORIZATION_TOP_K, articles::contains);
+        return fuse(contentBased, collaborative, factorized);
+    }
 
-        // Sort the articles by hybrid scores
-        return hybridScores.entrySet().stream()
-                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+    private static RankedArticles fuse(RankedArticles contentBased, RankedArticles collaborative, RankedArticles factorized) {
+        return new ScoreFusion(FUSION_NORMALIZATION)
+                .add(contentBased, CONTENT_WEIGHT)
+                .add(collaborative, COLLABORATIVE_WEIGHT)
+                .add(factorized, FACTORIZATION_WEIGHT)
+                .top(HYBRID_TOP_K);
     }
 
 }
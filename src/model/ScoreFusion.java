@@ -0,0 +1,65 @@
+package model;
+
+/**
+ * Weighted fusion of scored candidate lists from several recommenders.
+ * Encapsulation: each list is first normalised so that scores from different recommenders are comparable, then
+ * weighted and summed per article id in a primitive map; the final ranking is taken with a bounded top-K heap.
+ * An article missing from a list simply gets nothing from that recommender.
+ */
+public class ScoreFusion {
+
+    // How a recommender's raw scores are made comparable before weighting
+    public enum Normalization {
+        MIN_MAX,        // (score - min) / (max - min), floored: keeps the shape of the score distribution
+        RECIPROCAL_RANK // 1 / (RRF_K + rank): ignores score magnitudes, robust to outliers
+    }
+
+    // Damping constant of reciprocal rank fusion; the customary value from the RRF literature
+    private static final int RRF_K = 60;
+
+    // Min-max share of the lowest-ranked item: being in a recommender's top-K still counts for something, so it is
+    // kept apart from articles the recommender did not return at all
+    private static final double MIN_MAX_FLOOR = 0.1;
+
+    // Min-max value of every item of a flat list with positive scores: equal scores carry no ranking information,
+    // so they count half rather than all as top (a flat list of zero or negative scores counts nothing)
+    private static final double FLAT_LIST_SCORE = 0.5;
+
+    private final Normalization normalization;
+    private final IntDoubleMap fused = new IntDoubleMap();
+
+    public ScoreFusion(Normalization normalization) {
+        this.normalization = normalization;
+    }
+
+    // Adds one recommender's list (best first) with the given weight
+    public ScoreFusion add(RankedArticles ranked, double weight) {
+        int count = ranked.size();
+        if (count == 0 || weight == 0.0) return this;
+        int[] ids = ranked.articleIds();
+        double[] scores = ranked.scores();
+
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        for (double score : scores) {
+            min = Math.min(min, score);
+            max = Math.max(max, score);
+        }
+        double range = max - min;
+        double flat = max > 0.0 ? FLAT_LIST_SCORE : 0.0;
+        for (int rank = 0; rank < count; rank++) {
+            double normalized = switch (normalization) {
+                case MIN_MAX -> range == 0.0 ? flat : MIN_MAX_FLOOR + (1.0 - MIN_MAX_FLOOR) * (scores[rank] - min) / range;
+                case RECIPROCAL_RANK -> (RRF_K + 1.0) / (RRF_K + rank + 1);        // Scaled so the first item scores 1
+            };
+            if (normalized > 0.0) fused.add(ids[rank], weight * normalized);
+        }
+        return this;
+    }
+
+    // Returns the topK fused articles, best first
+    public RankedArticles top(int topK) {
+        TopKHeap heap = new TopKHeap(topK);
+        fused.forEach(heap::offer);
+        return heap.drain();
+    }
+}
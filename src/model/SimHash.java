@@ -0,0 +1,60 @@
+package model;
+
+/**
+ * 64-bit SimHash signatures of article text for near-duplicate detection.
+ * Each 3-word shingle is hashed to 64 bits and votes +1/-1 on every bit; the signature keeps the sign of each vote.
+ * Texts that share most of their shingles end up a few bits apart, so a small Hamming distance means near-duplicate.
+ */
+public class SimHash {
+    private static final int SHINGLE_WORDS = 3;
+
+    // Fewer words than this give unstable signatures, so such texts are not fingerprinted
+    public static final int MIN_WORDS = 20;
+
+    /**
+     * Returns the SimHash of the text, or 0 if the text is too short to fingerprint reliably.
+     */
+    public static long of(String text) {
+        String[] words = text.toLowerCase().split("[^\\p{L}\\p{N}]+");
+        int start = words.length > 0 && words[0].isEmpty() ? 1 : 0; // split() leaves a leading empty token
+        int count = words.length - start;
+        if (count < MIN_WORDS) return 0L;
+
+        int[] votes = new int[64];
+        for (int i = start; i + SHINGLE_WORDS <= words.length; i++) {
+            long hash = 0xcbf29ce484222325L; // FNV-1a over the shingle's words
+            for (int w = i; w < i + SHINGLE_WORDS; w++) {
+                String word = words[w];
+                for (int c = 0; c < word.length(); c++) {
+                    hash = (hash ^ word.charAt(c)) * 0x100000001b3L;
+                }
+                hash = (hash ^ ' ') * 0x100000001b3L;
+            }
+            hash = mix(hash);
+            for (int bit = 0; bit < 64; bit++) {
+                votes[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+            }
+        }
+
+        long signature = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (votes[bit] > 0) signature |= 1L << bit;
+        }
+        return signature == 0L ? 1L : signature; // 0 is reserved for "no signature"
+    }
+
+    // Number of differing bits
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    // Finalizer of MurmurHash3: spreads FNV's weak low bits over the whole word
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,76 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Bounded min-heap of (score, article id) pairs on primitive arrays: the root is the weakest of the best K seen so
+ * far, so offering N candidates costs O(N log K) and allocates nothing per candidate.
+ * Ties are broken towards the lower article id so rankings are deterministic.
+ */
+final class TopKHeap {
+    private final double[] scores;
+    private final int[] ids;
+    private int size = 0;
+
+    TopKHeap(int capacity) {
+        scores = new double[Math.max(0, capacity)];
+        ids = new int[Math.max(0, capacity)];
+    }
+
+    void offer(int articleId, double score) {
+        if (size < scores.length) {
+            scores[size] = score;
+            ids[size] = articleId;
+            siftUp(size++);
+        } else if (size > 0 && worse(ids[0], scores[0], articleId, score)) {
+            scores[0] = score;
+            ids[0] = articleId;
+            siftDown(0, size);
+        }
+    }
+
+    // Empties the heap into a list ordered best first
+    RankedArticles drain() {
+        int count = size;
+        for (int end = count - 1; end > 0; end--) {
+            swap(0, end); // The weakest remaining entry moves to the back
+            siftDown(0, end);
+        }
+        size = 0;
+        return new RankedArticles(Arrays.copyOf(ids, count), Arrays.copyOf(scores, count));
+    }
+
+    // Whether (idA, scoreA) ranks below (idB, scoreB)
+    private static boolean worse(int idA, double scoreA, int idB, double scoreB) {
+        return scoreA < scoreB || (scoreA == scoreB && idA > idB);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(ids[i], scores[i], ids[parent], scores[parent])) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int limit) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= limit) return;
+            if (child + 1 < limit && worse(ids[child + 1], scores[child + 1], ids[child], scores[child])) child++;
+            if (!worse(ids[child], scores[child], ids[i], scores[i])) return;
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+    }
+}
@@ -0,0 +1,211 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Compressed-sparse-row (CSR) user-item interaction matrix for collaborative filtering.
+ * Encapsulation: user and article ids are remapped to dense row/column indexes, and the interactions
+ * are stored in three primitive arrays, so memory grows with the number of non-zeros instead of boxed map entries.
+ */
+public class UserItemMatrix {
+    private final int[] userIds;     // Dense row index -> user id (sorted ascending)
+    private final int[] articleIds;  // Dense column index -> article id (sorted ascending)
+    private final int[] rowPtr;      // Row r occupies [rowPtr[r], rowPtr[r + 1]) in colIdx/values
+    private final int[] colIdx;      // Column index of each non-zero, sorted within a row
+    private final float[] values;    // Interaction value of each non-zero
+    private final double[] rowNorms; // Precomputed L2 norm of each row
+
+    private UserItemMatrix(int[] userIds, int[] articleIds, int[] rowPtr, int[] colIdx, float[] values) {
+        this.userIds = userIds;
+        this.articleIds = articleIds;
+        this.rowPtr = rowPtr;
+        this.colIdx = colIdx;
+        this.values = values;
+        this.rowNorms = new double[userIds.length];
+        for (int row = 0; row < userIds.length; row++) {
+            double sum = 0.0;
+            for (int k = rowPtr[row]; k < rowPtr[row + 1]; k++) {
+                sum += (double) values[k] * values[k];
+            }
+            rowNorms[row] = Math.sqrt(sum);
+        }
+    }
+
+    public int numUsers() {
+        return userIds.length;
+    }
+
+    public int numArticles() {
+        return articleIds.length;
+    }
+
+    public int nonZeros() {
+        return values.length;
+    }
+
+    // Returns the dense row index of a user, or -1 if the user has no interactions
+    public int rowOf(int userId) {
+        int row = Arrays.binarySearch(userIds, userId);
+        return row >= 0 ? row : -1;
+    }
+
+    // Returns the dense column index of an article, or -1 if nobody interacted with it
+    public int columnOf(int articleId) {
+        int col = Arrays.binarySearch(articleIds, articleId);
+        return col >= 0 ? col : -1;
+    }
+
+    public int userIdAt(int row) {
+        return userIds[row];
+    }
+
+    public int articleIdAt(int col) {
+        return articleIds[col];
+    }
+
+    public int rowStart(int row) {
+        return rowPtr[row];
+    }
+
+    public int rowEnd(int row) {
+        return rowPtr[row + 1];
+    }
+
+    public int columnAt(int k) {
+        return colIdx[k];
+    }
+
+    public float valueAt(int k) {
+        return values[k];
+    }
+
+    public double rowNorm(int row) {
+        return rowNorms[row];
+    }
+
+    // Returns the interaction value at (row, col), or 0 if absent (binary search within the row)
+    public float get(int row, int col) {
+        int k = Arrays.binarySearch(colIdx, rowPtr[row], rowPtr[row + 1], col);
+        return k >= 0 ? values[k] : 0.0f;
+    }
+
+    /**
+     * Dot product of two rows. Both rows keep their columns sorted, so this is a single merge pass
+     * over the two non-zero lists.
+     */
+    public double dot(int rowA, int rowB) {
+        int a = rowPtr[rowA], aEnd = rowPtr[rowA + 1];
+        int b = rowPtr[rowB], bEnd = rowPtr[rowB + 1];
+        double sum = 0.0;
+        while (a < aEnd && b < bEnd) {
+            int colA = colIdx[a], colB = colIdx[b];
+            if (colA == colB) {
+                sum += (double) values[a++] * values[b++];
+            } else if (colA < colB) {
+                a++;
+            } else {
+                b++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Builder that accumulates (user, article, value) triplets and compacts them into CSR form.
+     * Duplicate (user, article) pairs are summed.
+     */
+    public static class Builder {
+        private int[] users = new int[1024];
+        private int[] articles = new int[1024];
+        private float[] vals = new float[1024];
+        private int size = 0;
+
+        public Builder add(int userId, int articleId, float value) {
+            if (size == users.length) {
+                int capacity = size * 2;
+                users = Arrays.copyOf(users, capacity);
+                articles = Arrays.copyOf(articles, capacity);
+                vals = Arrays.copyOf(vals, capacity);
+            }
+            users[size] = userId;
+            articles[size] = articleId;
+            vals[size] = value;
+            size++;
+            return this;
+        }
+
+        public UserItemMatrix build() {
+            int[] userIds = distinctSorted(users, size);
+            int[] articleIds = distinctSorted(articles, size);
+            int numRows = userIds.length;
+
+            // Counting sort of the triplets by dense row index
+            int[] rowPtr = new int[numRows + 1];
+            int[] rowOfEntry = new int[size];
+            for (int i = 0; i < size; i++) {
+                rowOfEntry[i] = Arrays.binarySearch(userIds, users[i]);
+                rowPtr[rowOfEntry[i] + 1]++;
+            }
+            for (int r = 0; r < numRows; r++) {
+                rowPtr[r + 1] += rowPtr[r];
+            }
+            int[] next = Arrays.copyOf(rowPtr, numRows);
+            int[] colIdx = new int[size];
+            float[] values = new float[size];
+            for (int i = 0; i < size; i++) {
+                int pos = next[rowOfEntry[i]]++;
+                colIdx[pos] = Arrays.binarySearch(articleIds, articles[i]);
+                values[pos] = vals[i];
+            }
+
+            // Sort each row by column and merge duplicate columns in place
+            int write = 0;
+            int[] compactPtr = new int[numRows + 1];
+            for (int r = 0; r < numRows; r++) {
+                sortRow(colIdx, values, rowPtr[r], rowPtr[r + 1]);
+                compactPtr[r] = write;
+                for (int k = rowPtr[r]; k < rowPtr[r + 1]; k++) {
+                    if (write > compactPtr[r] && colIdx[write - 1] == colIdx[k]) {
+                        values[write - 1] += values[k];
+                    } else {
+                        colIdx[write] = colIdx[k];
+                        values[write] = values[k];
+                        write++;
+                    }
+                }
+            }
+            compactPtr[numRows] = write;
+
+            return new UserItemMatrix(userIds, articleIds, compactPtr,
+                    Arrays.copyOf(colIdx, write), Arrays.copyOf(values, write));
+        }
+
+        private static int[] distinctSorted(int[] source, int length) {
+            int[] sorted = Arrays.copyOf(source, length);
+            Arrays.sort(sorted);
+            int unique = 0;
+            for (int i = 0; i < length; i++) {
+                if (unique == 0 || sorted[unique - 1] != sorted[i]) {
+                    sorted[unique++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, unique);
+        }
+
+        // Insertion sort of the parallel column/value arrays; rows are short compared to the whole matrix
+        private static void sortRow(int[] cols, float[] vals, int from, int to) {
+            for (int i = from + 1; i < to; i++) {
+                int col = cols[i];
+                float val = vals[i];
+                int j = i - 1;
+                while (j >= from && cols[j] > col) {
+                    cols[j + 1] = cols[j];
+                    vals[j + 1] = vals[j];
+                    j--;
+                }
+                cols[j + 1] = col;
+                vals[j + 1] = val;
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Approximate nearest-neighbour index over user interaction vectors using signed random projections (SimHash LSH).
+ * Each user keeps one running projection per hyperplane; the signs of those projections, grouped into bands, pick
+ * the buckets the user lives in. Users sharing a bucket in any band are neighbour candidates.
+ *
+ * Recall/latency trade-off:
+ * - more bands       -> more chances to collide with a true neighbour (higher recall, more candidates)
+ * - more bits a band -> smaller buckets (fewer, more similar candidates, lower recall)
+ * - maxCandidates    -> hard cap on the candidates examined per query (bounded latency)
+ *
+ * Memory per user is bands * bitsPerBand floats plus one int per band, independent of the number of users.
+ * Not thread-safe on its own; UserSimilarityModel guards it with its lock.
+ */
+public class UserNeighbourIndex {
+    private final int bands;
+    private final int bitsPerBand;
+    private final int maxCandidates;
+    private final long seed;
+
+    private final Map<Integer, float[]> projections = new HashMap<>(); // user -> running projection per hyperplane
+    private final Map<Integer, int[]> signatures = new HashMap<>();    // user -> band signature per band
+    private final Map<Long, IntDoubleMap> buckets = new HashMap<>();   // (band, signature) -> users in the bucket
+
+    public UserNeighbourIndex(int bands, int bitsPerBand, int maxCandidates, long seed) {
+        if (bands < 1 || bitsPerBand < 1 || bitsPerBand > 31 || maxCandidates < 1) {
+            throw new IllegalArgumentException("Invalid LSH configuration: bands=" + bands
+                    + ", bitsPerBand=" + bitsPerBand + ", maxCandidates=" + maxCandidates);
+        }
+        this.bands = bands;
+        this.bitsPerBand = bitsPerBand;
+        this.maxCandidates = maxCandidates;
+        this.seed = seed;
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    public int getBitsPerBand() {
+        return bitsPerBand;
+    }
+
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    public void clear() {
+        projections.clear();
+        signatures.clear();
+        buckets.clear();
+    }
+
+    /**
+     * Adds delta * r(article) to each of the user's projections, where r is a pseudo-random +/-1 hyperplane
+     * component derived from the article id, then moves the user to its new buckets if a band signature flipped.
+     * Hyperplanes are never materialised, so new articles need no index rebuild.
+     */
+    public void update(int userId, int articleId, float delta) {
+        float[] projection = projections.computeIfAbsent(userId, id -> new float[bands * bitsPerBand]);
+        for (int bit = 0; bit < projection.length; bit++) {
+            projection[bit] += hyperplaneSign(bit, articleId) * delta;
+        }
+
+        int[] oldSignature = signatures.get(userId);
+        int[] newSignature = new int[bands];
+        for (int band = 0; band < bands; band++) {
+            int signature = 0;
+            for (int b = 0; b < bitsPerBand; b++) {
+                if (projection[band * bitsPerBand + b] > 0) {
+                    signature |= 1 << b;
+                }
+            }
+            newSignature[band] = signature;
+
+            if (oldSignature == null || oldSignature[band] != signature) {
+                if (oldSignature != null) {
+                    IntDoubleMap oldBucket = buckets.get(bucketKey(band, oldSignature[band]));
+                    if (oldBucket != null) {
+                        oldBucket.remove(userId);
+                        if (oldBucket.isEmpty()) buckets.remove(bucketKey(band, oldSignature[band]));
+                    }
+                }
+                buckets.computeIfAbsent(bucketKey(band, signature), key -> new IntDoubleMap()).put(userId, 1.0);
+            }
+        }
+        signatures.put(userId, newSignature);
+    }
+
+    /**
+     * Collects the users sharing at least one band bucket with the given user, excluding the user itself.
+     * Stops once maxCandidates distinct users have been collected.
+     */
+    public int[] candidates(int userId) {
+        int[] signature = signatures.get(userId);
+        if (signature == null) return new int[0];
+
+        IntDoubleMap seen = new IntDoubleMap();
+        for (int band = 0; band < bands && seen.size() < maxCandidates; band++) {
+            IntDoubleMap bucket = buckets.get(bucketKey(band, signature[band]));
+            if (bucket == null) continue;
+            for (int other : bucket.keys()) {
+                if (other == userId) continue;
+                seen.put(other, 1.0);
+                if (seen.size() >= maxCandidates) break;
+            }
+        }
+        return seen.keys();
+    }
+
+    private static long bucketKey(int band, int signature) {
+        return ((long) band << 32) | (signature & 0xFFFFFFFFL);
+    }
+
+    // Deterministic +/-1 component of hyperplane 'bit' for an article (splitmix64 finaliser)
+    private float hyperplaneSign(int bit, int articleId) {
+        long z = seed + 0x9E3779B97F4A7C15L * (((long) bit << 32) ^ (articleId & 0xFFFFFFFFL));
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return z < 0 ? -1.0f : 1.0f;
+    }
+}
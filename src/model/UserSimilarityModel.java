@@ -0,0 +1,236 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Long-lived user-user cosine similarity model for collaborative filtering.
+ * It keeps each user's interaction vector and squared norm up to date as interaction deltas arrive, and delegates
+ * neighbour search to an approximate {@link UserNeighbourIndex}. Exact cosines are only computed for the candidates
+ * the index returns, so no per-pair state is stored and memory per user stays bounded.
+ */
+public class UserSimilarityModel {
+    private final Map<Integer, IntDoubleMap> userVectors = new HashMap<>(); // user -> (article -> interaction)
+    private final IntDoubleMap squaredNorms = new IntDoubleMap();           // user -> squared L2 norm
+    private final UserNeighbourIndex neighbourIndex;
+    private final int topK;
+
+    // Readers (ranking) run concurrently; deltas and reloads take the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded = false;
+
+    // Deltas that arrive while a load is in progress; those the load did not read are replayed once it completes.
+    // Guarded by pendingLock, which is never held while waiting for the read/write lock.
+    private final Object pendingLock = new Object();
+    private List<Delta> pendingDuringLoad = null;
+    private long loadedThrough = 0; // Interaction writer sequence the loaded table included; guarded by pendingLock
+
+    private record Delta(int userId, int articleId, float delta, long sequence) {
+    }
+
+    /**
+     * @param neighbourIndex the approximate index used to find candidate neighbours
+     * @param topK           how many of the most similar candidates contribute to a user's scores
+     */
+    public UserSimilarityModel(UserNeighbourIndex neighbourIndex, int topK) {
+        this.neighbourIndex = neighbourIndex;
+        this.topK = topK;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Starts buffering deltas for a load (call it before flushing the interaction writer and reading the table).
+     * Every delta submitted before this call is then in the table, and every later one is buffered; load() replays
+     * the buffered deltas the table read did not include.
+     */
+    public void beginLoad() {
+        synchronized (pendingLock) {
+            if (!loaded && pendingDuringLoad == null) pendingDuringLoad = new ArrayList<>();
+        }
+    }
+
+    // Drops the buffer of a load that was abandoned (the table could not be brought up to date)
+    public void cancelLoad() {
+        synchronized (pendingLock) {
+            if (!loaded) pendingDuringLoad = null;
+        }
+    }
+
+    // Replaces the model state with the contents of an interaction matrix (a private snapshot that receives no deltas)
+    public void load(UserItemMatrix matrix) {
+        load(matrix, 0);
+    }
+
+    /**
+     * Replaces the model state with the contents of an interaction matrix, then replays the deltas buffered since
+     * beginLoad that the matrix does not include.
+     *
+     * @param through the interaction writer sequence number the matrix was read at (see InteractionWriter.readCommitted)
+     */
+    public void load(UserItemMatrix matrix, long through) {
+        lock.writeLock().lock();
+        try {
+            userVectors.clear();
+            squaredNorms.clear();
+            neighbourIndex.clear();
+
+            for (int row = 0; row < matrix.numUsers(); row++) {
+                int userId = matrix.userIdAt(row);
+                IntDoubleMap vector = new IntDoubleMap(matrix.rowEnd(row) - matrix.rowStart(row));
+                for (int k = matrix.rowStart(row); k < matrix.rowEnd(row); k++) {
+                    int articleId = matrix.articleIdAt(matrix.columnAt(k));
+                    float value = matrix.valueAt(k);
+                    vector.put(articleId, value);
+                    neighbourIndex.update(userId, articleId, value);
+                }
+                userVectors.put(userId, vector);
+                squaredNorms.put(userId, matrix.rowNorm(row) * matrix.rowNorm(row));
+            }
+            synchronized (pendingLock) {
+                if (pendingDuringLoad != null) {
+                    for (Delta pending : pendingDuringLoad) {
+                        if (pending.sequence() > through) apply(pending.userId(), pending.articleId(), pending.delta());
+                    }
+                    pendingDuringLoad = null;
+                }
+                loadedThrough = through;
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies an interaction delta for (user, article): updates the user's vector, norm and LSH buckets.
+     * Deltas arriving before the first load are ignored (the load reads them from the database), except while a
+     * load is in progress: those are buffered and replayed by load() unless the table read already included them.
+     * Deltas the loaded table included are ignored too.
+     *
+     * @param sequence the delta's interaction writer sequence number
+     */
+    public void applyDelta(int userId, int articleId, float delta, long sequence) {
+        synchronized (pendingLock) {
+            if (!loaded) {
+                if (pendingDuringLoad != null) pendingDuringLoad.add(new Delta(userId, articleId, delta, sequence));
+                return;
+            }
+            if (sequence <= loadedThrough) return; // Already counted by the load
+        }
+        lock.writeLock().lock();
+        try {
+            apply(userId, articleId, delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void apply(int userId, int articleId, float delta) {
+        IntDoubleMap vector = userVectors.computeIfAbsent(userId, id -> new IntDoubleMap());
+        double oldValue = vector.get(articleId);
+        double newValue = oldValue + delta;
+
+        squaredNorms.add(userId, newValue * newValue - oldValue * oldValue);
+        vector.put(articleId, newValue);
+        neighbourIndex.update(userId, articleId, delta);
+    }
+
+    // Cosine similarity between two users, or 0 when either vector has no magnitude
+    public double similarity(int userA, int userB) {
+        lock.readLock().lock();
+        try {
+            return cosine(userA, userB);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores the articles the user has not interacted with yet by the similarity-weighted interactions of the
+     * user's approximate top-K neighbours.
+     *
+     * @return article id -> collaborative score (empty if the user is unknown)
+     */
+    public IntDoubleMap scoreArticles(int userId) {
+        IntDoubleMap scores = new IntDoubleMap();
+        lock.readLock().lock();
+        try {
+            IntDoubleMap seen = userVectors.get(userId);
+            if (seen == null) return scores;
+
+            int[] neighbours = neighbourIndex.candidates(userId);
+            double[] similarities = new double[neighbours.length];
+            for (int i = 0; i < neighbours.length; i++) {
+                similarities[i] = cosine(userId, neighbours[i]);
+            }
+
+            for (int i : topIndexes(similarities, topK)) {
+                double similarity = similarities[i];
+                if (similarity == 0.0) continue;
+                userVectors.get(neighbours[i]).forEach((articleId, value) -> {
+                    if (!seen.containsKey(articleId)) { // Skip already interacted items
+                        scores.add(articleId, similarity * value);
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores;
+    }
+
+    // Articles the user has interacted with (empty if the user is unknown)
+    public int[] interactedArticles(int userId) {
+        lock.readLock().lock();
+        try {
+            IntDoubleMap vector = userVectors.get(userId);
+            return vector == null ? new int[0] : vector.keys();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double cosine(int userA, int userB) {
+        IntDoubleMap vectorA = userVectors.get(userA), vectorB = userVectors.get(userB);
+        if (vectorA == null || vectorB == null) return 0.0;
+        double normProduct = Math.sqrt(squaredNorms.get(userA) * squaredNorms.get(userB));
+        if (normProduct == 0.0) return 0.0;
+
+        // Iterate the shorter vector and probe the longer one
+        IntDoubleMap shorter = vectorA.size() <= vectorB.size() ? vectorA : vectorB;
+        IntDoubleMap longer = shorter == vectorA ? vectorB : vectorA;
+        double[] dot = new double[1];
+        shorter.forEach((articleId, value) -> dot[0] += value * longer.get(articleId));
+        return dot[0] / normProduct;
+    }
+
+    // Selects the indexes of up to topN highest scores, best first
+    static int[] topIndexes(double[] scores, int topN) {
+        if (topN <= 0) return new int[0];
+        int[] top = new int[topN];
+        int size = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (size < topN) {
+                size++;
+            } else if (scores[i] <= scores[top[topN - 1]]) {
+                continue;
+            }
+            // Insert into the sorted top list, shifting worse entries down
+            int pos = size - 1;
+            while (pos > 0 && scores[top[pos - 1]] < scores[i]) {
+                top[pos] = top[pos - 1];
+                pos--;
+            }
+            top[pos] = i;
+        }
+        return Arrays.copyOf(top, size);
+    }
+}
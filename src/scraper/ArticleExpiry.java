@@ -0,0 +1,56 @@
+package scraper;
+
+import db.DBConnection;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job that expires scraped articles by age.
+ * With incremental refresh articles are kept across sessions, so instead of deleting everything on logout this job
+ * periodically removes the articles that have not been seen on the news site for longer than the retention period,
+ * then prunes the page cache entries of URLs that are no longer stored or queued.
+ */
+public class ArticleExpiry {
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * Starts the expiry job (no-op if it is already running).
+     *
+     * @param maxAgeHours     articles not seen on the front page for this long are deleted
+     * @param intervalMinutes how often the job runs
+     */
+    public static synchronized void start(int maxAgeHours, long intervalMinutes) {
+        if (scheduler != null) return;
+        // Daemon thread so the job never keeps the JVM alive
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "article-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> expire(maxAgeHours), 0, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    // Stops the expiry job
+    public static synchronized void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    private static void expire(int maxAgeHours) {
+        try {
+            int deleted = DBConnection.deleteStaleArticles(maxAgeHours);
+            if (deleted > 0) {
+                System.out.println("Expired " + deleted + " articles older than " + maxAgeHours + " hours.");
+            }
+            int pruned = Webscraper.prunePageCache();
+            if (pruned > 0) {
+                Webscraper.logInfo("Pruned " + pruned + " page cache files.");
+            }
+        } catch (RuntimeException e) {
+            Webscraper.logError("Article expiry failed", e); // Keep the schedule alive
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package scraper;
+
+/**
+ * Circuit breaker for one news source.
+ * After failureThreshold consecutive failed fetches the breaker opens and requests to the source are refused for
+ * openMillis, so a slow or broken outlet stops consuming fetch slots and deadline budget. After that one trial request
+ * is let through (half-open): success closes the breaker, failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    // Counters
+    private long successes;
+    private long failures;
+    private long rejected;
+
+    /**
+     * @param failureThreshold consecutive failures that open the breaker
+     * @param openMillis       how long the breaker stays open before a trial request
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    // Whether a request may be sent now; every allowed request must be followed by recordSuccess or recordFailure
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.CLOSED) return true;
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true; // Only one trial request at a time
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        successes++;
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+        trialInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        failures++;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return state + " (" + successes + " ok, " + failures + " failed, " + rejected + " rejected)";
+    }
+}
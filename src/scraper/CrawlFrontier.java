@@ -0,0 +1,123 @@
+package scraper;
+
+import db.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent crawl frontier: article links that were discovered but not yet fetched successfully.
+ * Encapsulation: links are recorded in the crawl_frontier table before they are fetched and removed once processed,
+ * so links left over by an interrupted run or a failed fetch are picked up by the next refresh. Failed links are
+ * retried with a growing delay and dropped after MAX_ATTEMPTS. Outcomes are collected in memory and written in batches.
+ */
+public class CrawlFrontier {
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final Set<String> completed = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Records newly discovered links (already known ones keep their retry state).
+     *
+     * @return false if the frontier could not be written
+     */
+    public boolean enqueue(Collection<ScrapePipeline.Link> links) {
+        if (links.isEmpty()) return true;
+        String sql = "INSERT INTO crawl_frontier (url, source, title) VALUES (?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE title = VALUES(title)";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (ScrapePipeline.Link link : links) {
+                pstmt.setString(1, link.url());
+                pstmt.setString(2, link.source().name());
+                pstmt.setString(3, link.title());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the links that are due for fetching, oldest first. Links of sources that are no longer configured are skipped.
+     *
+     * @param sources configured sources by name
+     * @return the due links, or null if the frontier could not be read
+     */
+    public List<ScrapePipeline.Link> due(Map<String, NewsSource> sources, int limit) {
+        String sql = "SELECT url, source, title FROM crawl_frontier WHERE next_attempt_at <= NOW() " +
+                "ORDER BY discovered_at LIMIT ?";
+        List<ScrapePipeline.Link> links = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    NewsSource source = sources.get(rs.getString("source"));
+                    if (source != null) {
+                        links.add(new ScrapePipeline.Link(rs.getString("title"), rs.getString("url"), source));
+                    }
+                }
+            }
+            return links;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // The link was processed (stored, unchanged, or had nothing to store)
+    public void completed(String url) {
+        completed.add(url);
+        failed.remove(url);
+    }
+
+    // The link could not be fetched; it is retried later
+    public void failed(String url) {
+        failed.add(url);
+    }
+
+    // Writes the collected outcomes: completed links leave the frontier, failed ones are rescheduled or dropped
+    public void commit() {
+        List<String> done = new ArrayList<>(completed);
+        List<String> retry = new ArrayList<>(failed);
+        if (done.isEmpty() && retry.isEmpty()) return;
+        String deleteSql = "DELETE FROM crawl_frontier WHERE url = ?";
+        String retrySql = "UPDATE crawl_frontier SET attempts = attempts + 1, " +
+                "next_attempt_at = NOW() + INTERVAL LEAST(POW(2, attempts), 60) MINUTE WHERE url = ?";
+        String dropSql = "DELETE FROM crawl_frontier WHERE attempts >= ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement delete = conn.prepareStatement(deleteSql);
+             PreparedStatement reschedule = conn.prepareStatement(retrySql);
+             PreparedStatement drop = conn.prepareStatement(dropSql)) {
+            for (String url : done) {
+                delete.setString(1, url);
+                delete.addBatch();
+            }
+            delete.executeBatch();
+            for (String url : retry) {
+                reschedule.setString(1, url);
+                reschedule.addBatch();
+            }
+            reschedule.executeBatch();
+            drop.setInt(1, MAX_ATTEMPTS); // Give up on links that keep failing
+            drop.executeUpdate();
+            completed.removeAll(done);
+            failed.removeAll(retry);
+        } catch (SQLException e) {
+            e.printStackTrace(); // Outcomes stay in memory and are written by the next commit
+        }
+    }
+}
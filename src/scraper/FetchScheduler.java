@@ -0,0 +1,159 @@
+package scraper;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Politeness-aware scheduler for page fetches across many hosts.
+ * Concurrency: fetches are queued per host and dispatched round-robin, so one outlet with many articles cannot starve
+ * the others. A host is dispatched when its token bucket has a token; hosts using less than their fair share of the
+ * global concurrency (global limit divided by the hosts with work) go first, and slots nobody under their share can
+ * use are lent to the others. Fetches run on virtual threads.
+ */
+public final class FetchScheduler {
+
+    // Queued fetches and limits of one host; guarded by the scheduler's monitor
+    private static class HostQueue {
+        final String host;
+        final TokenBucket bucket;
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+        int inFlight;
+
+        HostQueue(String host, TokenBucket bucket) {
+            this.host = host;
+            this.bucket = bucket;
+        }
+    }
+
+    private final int maxConcurrent;
+    private final Map<String, HostQueue> hosts = new HashMap<>();     // guarded by 'this'
+    private final ArrayDeque<HostQueue> rotation = new ArrayDeque<>(); // Hosts with queued fetches, in round-robin order; guarded by 'this'
+    private int running;                                               // guarded by 'this'
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread dispatcher;
+
+    /**
+     * @param maxConcurrent fetches allowed in flight across all hosts
+     */
+    public FetchScheduler(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+        this.dispatcher = new Thread(this::dispatch, "fetch-scheduler");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Queues a fetch for the source's host; it runs once the host's rate limit and fair share allow.
+     *
+     * @return completes when the fetch has run (exceptionally if it threw)
+     */
+    public CompletableFuture<Void> submit(NewsSource source, Runnable fetch) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Runnable task = () -> {
+            if (done.isDone()) return; // Cancelled while queued (e.g. the run's deadline passed)
+            try {
+                fetch.run();
+                done.complete(null);
+            } catch (Throwable t) {
+                done.completeExceptionally(t); // Never leave a waiter hanging
+            }
+        };
+        synchronized (this) {
+            HostQueue queue = hosts.computeIfAbsent(source.host(),
+                    host -> new HostQueue(host, new TokenBucket(source.requestsPerSecond(), source.burst())));
+            if (queue.tasks.isEmpty()) {
+                rotation.addLast(queue);
+            }
+            queue.tasks.add(task);
+            notifyAll();
+        }
+        return done;
+    }
+
+    // Stops dispatching; fetches already running finish, queued ones are dropped
+    public void shutdown() {
+        dispatcher.interrupt();
+        workers.shutdown();
+    }
+
+    private void dispatch() {
+        try {
+            while (true) {
+                HostQueue queue;
+                Runnable task;
+                synchronized (this) {
+                    long waitNanos;
+                    while ((waitNanos = pickNext()) != 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, waitNanos); // Woken early by submits and completions
+                    }
+                    queue = rotation.pollFirst();
+                    task = queue.tasks.poll();
+                    if (!queue.tasks.isEmpty()) {
+                        rotation.addLast(queue); // Back of the line: the other hosts go next
+                    }
+                    queue.inFlight++;
+                    running++;
+                }
+                HostQueue finished = queue;
+                workers.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        synchronized (FetchScheduler.this) {
+                            finished.inFlight--;
+                            running--;
+                            FetchScheduler.this.notifyAll();
+                        }
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            // Shutdown
+        }
+    }
+
+    /**
+     * Moves the next dispatchable host to the front of the rotation.
+     *
+     * @return 0 if one is ready, otherwise how long to wait (Long.MAX_VALUE: until something changes)
+     */
+    private long pickNext() {
+        if (running >= maxConcurrent || rotation.isEmpty()) return Long.MAX_VALUE;
+        int activeHosts = 0;
+        for (HostQueue queue : hosts.values()) {
+            if (!queue.tasks.isEmpty() || queue.inFlight > 0) activeHosts++;
+        }
+        int fairShare = Math.max(1, (maxConcurrent + activeHosts - 1) / activeHosts);
+
+        long shortestWait = Long.MAX_VALUE;
+        HostQueue overShare = null;
+        for (int i = 0, n = rotation.size(); i < n; i++) {
+            HostQueue queue = rotation.peekFirst();
+            if (queue.inFlight < fairShare) {
+                long wait = queue.bucket.tryAcquire();
+                if (wait == 0) return 0;
+                shortestWait = Math.min(shortestWait, wait);
+            } else if (overShare == null) {
+                overShare = queue;
+            }
+            rotation.addLast(rotation.pollFirst()); // Throttled or at its share: try the next host
+        }
+        // No host under its share can go: lend the idle slot to one that is over it rather than leave it unused
+        if (overShare != null) {
+            long wait = overShare.bucket.tryAcquire();
+            if (wait == 0) {
+                rotation.remove(overShare);
+                rotation.addFirst(overShare);
+                return 0;
+            }
+            shortestWait = Math.min(shortestWait, wait);
+        }
+        return shortestWait;
+    }
+}
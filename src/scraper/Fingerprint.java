@@ -0,0 +1,39 @@
+package scraper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Content fingerprints used to detect whether a scraped article changed since it was stored.
+ */
+public class Fingerprint {
+    private static final Pattern WHITESPACE = Pattern.compile("[\\s\\u00A0\\u200B\\uFEFF]+");
+
+    /**
+     * Fingerprint of an article body: SHA-256 of the normalized text, so that re-scrapes differing only in Unicode
+     * representation or whitespace (markup reflows, non-breaking spaces) count as unchanged.
+     */
+    public static String contentHash(String content) {
+        return sha256Hex(normalize(content));
+    }
+
+    // NFKC form, every whitespace run collapsed to one space, trimmed
+    static String normalize(String content) {
+        String normalized = Normalizer.normalize(content, Normalizer.Form.NFKC);
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    // SHA-256 of the text as 64 lowercase hex characters (fits the CHAR(64) content_hash column)
+    public static String sha256Hex(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Every JRE ships SHA-256
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package scraper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Scraper transport over one shared java.net.http.HttpClient.
+ * Encapsulation: every page fetch reuses the client's pooled keep-alive connections, and HTTP/2 is negotiated where the
+ * server supports it so concurrent fetches from one host are multiplexed over a single connection. Requests advertise
+ * gzip/deflate and bodies are decoded here; a per-host semaphore bounds the requests in flight to any single host.
+ */
+public class HttpTransport {
+
+    /**
+     * A fetched response.
+     *
+     * @param statusCode   the HTTP status
+     * @param body         the decoded body (empty for 304 and bodiless responses)
+     * @param etag         the ETag header, or null
+     * @param lastModified the Last-Modified header, or null
+     */
+    public record Response(int statusCode, String body, String etag, String lastModified) {
+    }
+
+    private static final String USER_AGENT = "Mozilla/5.0 (compatible; NewsRecommender/1.0)";
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final int maxConnectionsPerHost;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    /**
+     * @param connectTimeout        time allowed to open a connection
+     * @param requestTimeout        time allowed for a whole request
+     * @param maxConnectionsPerHost requests allowed in flight to the same host
+     */
+    public HttpTransport(Duration connectTimeout, Duration requestTimeout, int maxConnectionsPerHost) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)               // Falls back to HTTP/1.1 keep-alive when not offered
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    /**
+     * Sends a GET request, with conditional validators when given.
+     *
+     * @param etag         value for If-None-Match, or null
+     * @param lastModified value for If-Modified-Since, or null
+     */
+    public Response get(String url, String etag, String lastModified) throws IOException, InterruptedException {
+        return get(url, etag, lastModified, requestTimeout);
+    }
+
+    /**
+     * Sends a GET request that must complete within the given timeout (capped by the transport's request timeout).
+     */
+    public Response get(String url, String etag, String lastModified, Duration timeout) throws IOException, InterruptedException {
+        URI uri = URI.create(url);
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(timeout.compareTo(requestTimeout) < 0 ? timeout : requestTimeout)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", "text/html,application/xhtml+xml")
+                .header("Accept-Encoding", "gzip, deflate")
+                .GET();
+        if (etag != null) request.header("If-None-Match", etag);
+        if (lastModified != null) request.header("If-Modified-Since", lastModified);
+
+        Semaphore permits = hostPermits.computeIfAbsent(String.valueOf(uri.getHost()), host -> new Semaphore(maxConnectionsPerHost));
+        permits.acquire();
+        try {
+            HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            String body;
+            try (InputStream in = decode(response)) {
+                body = new String(in.readAllBytes(), charsetOf(response));
+            }
+            return new Response(response.statusCode(), body,
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null));
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Unwraps the Content-Encoding the server chose
+    private static InputStream decode(HttpResponse<InputStream> response) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+        InputStream body = response.body();
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(body);
+            case "deflate" -> new InflaterInputStream(body);
+            default -> body;
+        };
+    }
+
+    // Charset from the Content-Type header, UTF-8 when missing or unknown
+    private static Charset charsetOf(HttpResponse<?> response) {
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        for (String part : contentType.split(";")) {
+            String parameter = part.trim();
+            if (parameter.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+                try {
+                    return Charset.forName(parameter.substring(8).replace("\"", "").trim());
+                } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                    break;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+}
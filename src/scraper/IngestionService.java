@@ -0,0 +1,139 @@
+package scraper;
+
+import db.DBConnection;
+import model.RecommendationBatch;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Scheduled ingestion service that keeps the article store fresh in the background.
+ * Abstraction: logins read whatever is already stored instead of scraping on the user-facing path.
+ *
+ * - Refreshes run on a fixed cadence with random jitter, so several instances do not hit the site in lockstep.
+ * - Single flight: while a refresh is running, further requests (scheduled or on demand) join it instead of starting another.
+ * - After each scheduled refresh, every user's recommendations are precomputed (RecommendationBatch) and the
+ *   connection pool statistics are written to the ingestion log.
+ */
+public class IngestionService {
+    private static final AtomicReference<CompletableFuture<Boolean>> inFlight = new AtomicReference<>();
+    private static ScheduledExecutorService scheduler;
+    private static long intervalMillis;
+    private static double jitter;
+
+    /**
+     * Starts the background refresh loop (no-op if it is already running). The first refresh starts immediately.
+     *
+     * @param intervalMinutes average time between refreshes
+     * @param jitterFraction  each delay is randomised by up to this fraction of the interval (e.g. 0.2 = +/-20%)
+     */
+    public static synchronized void start(long intervalMinutes, double jitterFraction) {
+        if (scheduler != null) return;
+        intervalMillis = TimeUnit.MINUTES.toMillis(intervalMinutes);
+        jitter = jitterFraction;
+        // Daemon thread so the service never keeps the JVM alive
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "article-ingestion");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(IngestionService::scheduledRefresh);
+    }
+
+    // Stops the refresh loop; a refresh already in flight is interrupted
+    public static synchronized void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        scheduler = null;
+        logPoolStats(); // Final figures for the session
+    }
+
+    public static synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * Starts a refresh now, or joins the one already running. Progress goes to the ingestion log.
+     *
+     * @return completes with true when the refresh finished without errors
+     */
+    public static CompletableFuture<Boolean> refresh() {
+        return refresh(false);
+    }
+
+    /**
+     * Same, printing the progress of a refresh started by this call when console is true (a user is waiting for it).
+     */
+    public static CompletableFuture<Boolean> refresh(boolean console) {
+        while (true) {
+            CompletableFuture<Boolean> current = inFlight.get();
+            if (current != null) return current; // Join the refresh in flight
+            CompletableFuture<Boolean> mine = new CompletableFuture<>();
+            if (!inFlight.compareAndSet(null, mine)) continue;
+            try {
+                mine.complete(Webscraper.refreshArticles(console));
+            } catch (RuntimeException e) {
+                mine.complete(false);
+                Webscraper.logError("Scheduled article refresh failed", e);
+            } finally {
+                inFlight.set(null);
+            }
+            return mine;
+        }
+    }
+
+    /**
+     * Waits (up to the timeout) for the refresh in flight, if any; used on a cold start when the store is still empty.
+     *
+     * @return true if no refresh was running or it finished in time
+     */
+    public static boolean awaitRefresh(long timeout, TimeUnit unit) {
+        CompletableFuture<Boolean> current = inFlight.get();
+        if (current == null) return true;
+        try {
+            current.get(timeout, unit);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void scheduledRefresh() {
+        refresh().join();
+        precomputeRecommendations();
+        logPoolStats();
+        synchronized (IngestionService.class) {
+            if (scheduler == null || scheduler.isShutdown()) return;
+            scheduler.schedule(IngestionService::scheduledRefresh, nextDelayMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Re-ranks every user against the refreshed article set, so logins read a precomputed list
+    private static void precomputeRecommendations() {
+        try {
+            Webscraper.logInfo(RecommendationBatch.run().toString()); // Runs in the background: keep it off the console
+        } catch (RuntimeException e) {
+            Webscraper.logError("Recommendation batch failed", e);
+        }
+    }
+
+    // Connection pool usage so far (size, borrow wait times, timeouts), one line per refresh cycle
+    private static void logPoolStats() {
+        Webscraper.logInfo("Connection pool: " + DBConnection.getPool().getStats());
+    }
+
+    // Interval +/- jitter, so refreshes do not fall on a fixed beat
+    private static long nextDelayMillis() {
+        double factor = 1.0 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Math.max(1_000L, (long) (intervalMillis * factor));
+    }
+}
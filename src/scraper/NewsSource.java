@@ -0,0 +1,35 @@
+package scraper;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * A news outlet the scraper can ingest.
+ * Abstraction: the scraper only needs to know where a source's front page is, how to find article links on it and how
+ * to pull the article body out of an article page, plus how fast the source's host may be crawled.
+ */
+public interface NewsSource {
+
+    // Short stable name, also stored with crawl frontier entries
+    String name();
+
+    // The page listing the articles to ingest
+    String frontPageUrl();
+
+    // Article links found on the front page
+    List<ScrapePipeline.Link> extractLinks(String frontPageHtml);
+
+    // Article body text of an article page (empty if the page has none)
+    String extractContent(String articleHtml, String url);
+
+    // Sustained request rate allowed against this source's host
+    double requestsPerSecond();
+
+    // Requests that may be sent back-to-back before the rate applies
+    int burst();
+
+    // Host the politeness limits apply to
+    default String host() {
+        return URI.create(frontPageUrl()).getHost();
+    }
+}
@@ -0,0 +1,189 @@
+package scraper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Content-addressed on-disk cache of fetched pages.
+ * Encapsulation: page bodies are stored once per distinct content under bodies/<sha256 of body>.html, and each URL has a
+ * small metadata file under index/<sha256 of url>.properties recording which body it points to together with the
+ * ETag/Last-Modified validators needed for conditional requests. Bodies are read through memory-mapped files.
+ * Writes go through a temporary file and an atomic move, so concurrent fetchers never see a partial file.
+ * prune() drops the entries of URLs that are no longer of interest and the bodies nothing points to any more.
+ */
+public class PageCache {
+    // Bodies and temporary files younger than this are never pruned: a concurrent store() writes the body before
+    // the entry that references it
+    private static final Duration PRUNE_GRACE = Duration.ofMinutes(10);
+
+    /**
+     * The cached state of a URL.
+     *
+     * @param url          the page URL
+     * @param etag         the ETag validator sent by the server, or null
+     * @param lastModified the Last-Modified validator sent by the server, or null
+     * @param bodyHash     the content address of the cached body
+     */
+    public record Entry(String url, String etag, String lastModified, String bodyHash) {
+    }
+
+    private final Path bodies;
+    private final Path index;
+
+    /**
+     * @param directory root directory of the cache (created if missing)
+     */
+    public PageCache(Path directory) {
+        this.bodies = directory.resolve("bodies");
+        this.index = directory.resolve("index");
+    }
+
+    // Returns the cached entry of a URL, or null if the URL is not cached (or its body is gone)
+    public Entry lookup(String url) {
+        Path metaFile = index.resolve(Fingerprint.sha256Hex(url) + ".properties");
+        if (!Files.isRegularFile(metaFile)) return null;
+        Properties meta = new Properties();
+        try (Reader reader = Files.newBufferedReader(metaFile, StandardCharsets.UTF_8)) {
+            meta.load(reader);
+        } catch (IOException e) {
+            return null; // A damaged entry is just a cache miss
+        }
+        String bodyHash = meta.getProperty("body");
+        if (bodyHash == null || !url.equals(meta.getProperty("url")) || !Files.isRegularFile(bodyFile(bodyHash))) return null;
+        return new Entry(url, meta.getProperty("etag"), meta.getProperty("lastModified"), bodyHash);
+    }
+
+    // Reads a cached body through a read-only memory mapping, or returns null if it cannot be read
+    public String readBody(Entry entry) {
+        try (FileChannel channel = FileChannel.open(bodyFile(entry.bodyHash()), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return StandardCharsets.UTF_8.decode(mapped).toString();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores a freshly fetched body and its validators. Identical bodies (from any URL) are stored only once.
+     *
+     * @return the new entry, or null if the cache could not be written (the fetch itself still succeeded)
+     */
+    public Entry store(String url, String body, String etag, String lastModified) {
+        try {
+            Files.createDirectories(bodies);
+            Files.createDirectories(index);
+            String bodyHash = Fingerprint.sha256Hex(body);
+            Path bodyFile = bodyFile(bodyHash);
+            if (!Files.exists(bodyFile)) {
+                writeAtomically(bodyFile, body);
+            }
+
+            Properties meta = new Properties();
+            meta.setProperty("url", url);
+            meta.setProperty("body", bodyHash);
+            if (etag != null) meta.setProperty("etag", etag);
+            if (lastModified != null) meta.setProperty("lastModified", lastModified);
+            Path metaFile = index.resolve(Fingerprint.sha256Hex(url) + ".properties");
+            Path temp = Files.createTempFile(index, "meta", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                meta.store(writer, null);
+            }
+            Files.move(temp, metaFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new Entry(url, etag, lastModified, bodyHash);
+        } catch (IOException e) {
+            Webscraper.logError("Failed to cache page: " + url, e);
+            return null;
+        }
+    }
+
+    /**
+     * Deletes the entries of URLs the predicate rejects, then the bodies no remaining entry references and leftover
+     * temporary files.
+     *
+     * @param keepUrl true for URLs whose cached page is still needed
+     * @return the number of files deleted
+     */
+    public int prune(Predicate<String> keepUrl) {
+        return prune(keepUrl, PRUNE_GRACE);
+    }
+
+    int prune(Predicate<String> keepUrl, Duration grace) {
+        long cutoff = System.currentTimeMillis() - grace.toMillis();
+        int deleted = 0;
+        Set<String> referenced = new HashSet<>();
+        try {
+            if (Files.isDirectory(index)) {
+                try (DirectoryStream<Path> metaFiles = Files.newDirectoryStream(index, "*.properties")) {
+                    for (Path metaFile : metaFiles) {
+                        Properties meta = new Properties();
+                        try (Reader reader = Files.newBufferedReader(metaFile, StandardCharsets.UTF_8)) {
+                            meta.load(reader);
+                        } catch (NoSuchFileException e) {
+                            continue; // Replaced or removed concurrently
+                        }
+                        String url = meta.getProperty("url");
+                        if (url != null && keepUrl.test(url)) {
+                            if (meta.getProperty("body") != null) referenced.add(meta.getProperty("body"));
+                        } else if (Files.deleteIfExists(metaFile)) {
+                            deleted++;
+                        }
+                    }
+                }
+                deleted += deleteOld(index, "*.tmp", cutoff, Set.of());
+            }
+            if (Files.isDirectory(bodies)) {
+                deleted += deleteOld(bodies, "*.html", cutoff, referenced);
+                deleted += deleteOld(bodies, "*.tmp", cutoff, Set.of());
+            }
+        } catch (IOException e) {
+            Webscraper.logError("Failed to prune the page cache", e);
+        }
+        return deleted;
+    }
+
+    // Deletes the files matching the glob that were last modified before the cutoff, except the referenced hashes
+    private static int deleteOld(Path directory, String glob, long cutoffMillis, Set<String> referenced) throws IOException {
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (referenced.contains(name.substring(0, name.lastIndexOf('.')))) continue;
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < cutoffMillis && Files.deleteIfExists(file)) deleted++;
+                } catch (NoSuchFileException e) {
+                    // Removed concurrently
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private Path bodyFile(String bodyHash) {
+        return bodies.resolve(bodyHash + ".html");
+    }
+
+    private void writeAtomically(Path target, String content) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "body", ".tmp");
+        try {
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
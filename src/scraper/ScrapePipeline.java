@@ -0,0 +1,513 @@
+package scraper;
+
+import concurrency.ConcurrencyHandler;
+import db.ClassificationWriter;
+import db.DBConnection;
+import db.SavedArticle;
+import db.StoredArticle;
+import model.NearDuplicateIndex;
+import model.SimHash;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static db.DBConnection.saveArticleToDB;
+import static model.Category.categorizeArticle;
+
+/**
+ * Staged scraping pipeline: fetch -> parse/categorize -> persist, joined by bounded queues.
+ * Incremental refresh: pages whose content fingerprint matches the stored article skip categorization and are only
+ * marked as re-fetched; changed pages update the stored article in place instead of inserting a new one.
+ * Concurrency: fetchers run on virtual threads, dispatched per host by a FetchScheduler, so blocking network waits (and retries) do not tie up platform
+ * threads; parsing and keyword matching run on a CPU-sized pool; a single persistence stage writes articles and their
+ * classifications in batches. Each stage records its throughput and the depth of the queue feeding it.
+ */
+public class ScrapePipeline {
+
+    // An article link found on a source's front page
+    public record Link(String title, String url, NewsSource source) {
+    }
+
+    // 'stored' is the database row for the page's URL, or null for a new article
+    private record FetchedPage(String title, String url, String html, NewsSource source, StoredArticle stored) {
+    }
+
+    // 'scores' is null when the content is unchanged or a near-duplicate, so nothing needs categorizing;
+    // 'duplicateOf' is the id of the article the page duplicates, or -1
+    private record ParsedArticle(String title, String url, String content, String contentHash, long simhash,
+                                 int duplicateOf, StoredArticle stored, Map<String, Integer> scores) {
+    }
+
+    // Where a parsed article ended up, and whether its category scores need writing
+    private record Persisted(int articleId, boolean classify) {
+    }
+
+    // End-of-stream markers passed down the queues
+    private static final FetchedPage END_OF_PAGES = new FetchedPage(null, null, null, null, null);
+    private static final ParsedArticle END_OF_ARTICLES = new ParsedArticle(null, null, null, null, 0L, -1, null, null);
+
+    /**
+     * Per-stage counters: items processed/failed/timed out/rejected, time spent working, and the maximum depth of the
+     * stage's input queue. Timed-out items missed the run's deadline and rejected ones hit an open circuit breaker;
+     * both are deferred to the next run.
+     */
+    public static class StageMetrics {
+        private final String name;
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong timedOut = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+        private volatile long startNanos;
+        private volatile long endNanos;
+
+        StageMetrics(String name) {
+            this.name = name;
+        }
+
+        void start() {
+            startNanos = System.nanoTime();
+        }
+
+        void finish() {
+            endNanos = System.nanoTime();
+        }
+
+        void recordQueueDepth(int depth) {
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+        }
+
+        void record(long startedAt, boolean ok) {
+            busyNanos.addAndGet(System.nanoTime() - startedAt);
+            (ok ? processed : failed).incrementAndGet();
+        }
+
+        void recordTimeout(long startedAt) {
+            busyNanos.addAndGet(System.nanoTime() - startedAt);
+            timedOut.incrementAndGet();
+        }
+
+        void recordRejected() {
+            rejected.incrementAndGet();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getProcessed() {
+            return processed.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+
+        public long getTimedOut() {
+            return timedOut.get();
+        }
+
+        public long getRejected() {
+            return rejected.get();
+        }
+
+        // Share of the stage's items that failed
+        public double getFailureRate() {
+            return rateOf(failed.get());
+        }
+
+        // Share of the stage's items that missed the deadline
+        public double getTimeoutRate() {
+            return rateOf(timedOut.get());
+        }
+
+        private double rateOf(long count) {
+            long total = processed.get() + failed.get() + timedOut.get() + rejected.get();
+            return total == 0 ? 0.0 : (double) count / total;
+        }
+
+        public int getMaxQueueDepth() {
+            return maxQueueDepth.get();
+        }
+
+        // Items completed per second of wall-clock time the stage was running
+        public double getThroughput() {
+            long elapsed = (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+            return elapsed <= 0 ? 0.0 : processed.get() / (elapsed / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d ok, %d failed (%.0f%%), %d timed out (%.0f%%), %d rejected, %.1f/s, busy %d ms, max queue %d",
+                    name, processed.get(), failed.get(), getFailureRate() * 100, timedOut.get(), getTimeoutRate() * 100,
+                    rejected.get(), getThroughput(), busyNanos.get() / 1_000_000, maxQueueDepth.get());
+        }
+    }
+
+    // Admission of fetched pages into a run's parse queue; closed when the run stops accepting pages (deadline reached)
+    private static class PageGate {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        boolean closed; // Written under the write lock, read under the read lock
+    }
+
+    private final FetchScheduler fetchScheduler;
+    private final int parseWorkers;
+    private final int queueCapacity;
+    private final int persistBatchSize;
+
+    /**
+     * @param fetchScheduler   schedules fetches fairly across hosts within their rate limits
+     * @param parseWorkers     threads parsing and categorizing pages (normally the number of cores)
+     * @param queueCapacity    capacity of each bounded queue between stages
+     * @param persistBatchSize articles written per database batch
+     */
+    public ScrapePipeline(FetchScheduler fetchScheduler, int parseWorkers, int queueCapacity, int persistBatchSize) {
+        this.fetchScheduler = fetchScheduler;
+        this.parseWorkers = parseWorkers;
+        this.queueCapacity = queueCapacity;
+        this.persistBatchSize = persistBatchSize;
+    }
+
+    /**
+     * Runs every link through the three stages and waits until the last article has been persisted.
+     *
+     * @return the metrics of the fetch, parse and persist stages, in that order
+     */
+    public List<StageMetrics> run(List<Link> links) throws InterruptedException {
+        return run(links, Map.of(), new CrawlFrontier(), Webscraper.NO_DEADLINE);
+    }
+
+    /**
+     * Runs the links through the stages, comparing each fetched page with what is already stored for its URL.
+     *
+     * @param stored   URL -> stored article for the links that are already in the database
+     * @param frontier receives the outcome of every link (processed or to be retried); the caller commits it
+     * @param deadlineNanos System.nanoTime() by which fetching must stop; links not fetched by then get no outcome
+     *                      and stay in the frontier for the next run (Webscraper.NO_DEADLINE to wait for all)
+     * @return the metrics of the fetch, parse and persist stages, in that order
+     */
+    public List<StageMetrics> run(List<Link> links, Map<String, StoredArticle> stored, CrawlFrontier frontier,
+                                  long deadlineNanos) throws InterruptedException {
+        StageMetrics fetchMetrics = new StageMetrics("fetch");
+        StageMetrics parseMetrics = new StageMetrics("parse");
+        StageMetrics persistMetrics = new StageMetrics("persist");
+        BlockingQueue<FetchedPage> pages = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ParsedArticle> articles = new ArrayBlockingQueue<>(queueCapacity);
+
+        ConcurrencyHandler parsers = new ConcurrencyHandler(parseWorkers);
+        ConcurrencyHandler persister = new ConcurrencyHandler(1);
+        try {
+            persistMetrics.start();
+            Future<?> persistDone = persister.submitTask(() -> persistStage(articles, persistMetrics, frontier));
+
+            parseMetrics.start();
+            List<Future<?>> parseDone = new ArrayList<>();
+            for (int i = 0; i < parseWorkers; i++) {
+                parseDone.add(parsers.submitTask(() -> parseStage(pages, articles, parseMetrics, persistMetrics, frontier)));
+            }
+
+            // Fetch stage: the scheduler runs each fetch on a virtual thread once its host's rate limit and fair share allow
+            fetchMetrics.start();
+            PageGate gate = new PageGate();
+            List<Future<?>> fetchDone = new ArrayList<>();
+            List<AtomicBoolean> claims = new ArrayList<>(); // Set by whoever gets to a link first: its fetch or the deadline
+            for (Link link : links) {
+                AtomicBoolean claim = new AtomicBoolean();
+                claims.add(claim);
+                fetchDone.add(fetchScheduler.submit(link.source(), () -> {
+                    if (claim.compareAndSet(false, true)) {
+                        fetch(link, stored.get(link.url()), deadlineNanos, gate, pages, fetchMetrics, parseMetrics, frontier);
+                    }
+                }));
+            }
+            awaitUntil(fetchDone, deadlineNanos);
+            int late = 0;
+            for (int i = 0; i < fetchDone.size(); i++) {
+                if (claims.get(i).compareAndSet(false, true)) {
+                    fetchDone.get(i).cancel(false); // Still queued at the deadline: never started, deferred to the next run
+                    fetchMetrics.recordTimeout(System.nanoTime());
+                    late++;
+                }
+            }
+            // Stop admitting pages: fetches still running past the deadline are deferred instead of holding up the run
+            gate.lock.writeLock().lock();
+            try {
+                gate.closed = true;
+            } finally {
+                gate.lock.writeLock().unlock();
+            }
+            fetchMetrics.finish();
+            if (late > 0) {
+                System.err.println(late + " article fetches missed the scrape deadline and are deferred to the next refresh.");
+            }
+
+            // Close the stages in order: one end marker per parse worker, then one for the persister
+            for (int i = 0; i < parseWorkers; i++) {
+                pages.put(END_OF_PAGES);
+            }
+            awaitAll(parseDone);
+            parseMetrics.finish();
+            articles.put(END_OF_ARTICLES);
+            awaitAll(List.of(persistDone));
+            persistMetrics.finish();
+        } finally {
+            parsers.shutdown();
+            persister.shutdown();
+        }
+        return List.of(fetchMetrics, parseMetrics, persistMetrics);
+    }
+
+    private void fetch(Link link, StoredArticle stored, long deadlineNanos, PageGate gate, BlockingQueue<FetchedPage> pages,
+                       StageMetrics fetchMetrics, StageMetrics parseMetrics, CrawlFrontier frontier) {
+        long startedAt = System.nanoTime();
+        if (Webscraper.remainingNanos(deadlineNanos) <= 0) {
+            fetchMetrics.recordTimeout(startedAt); // Deferred: no outcome, so the link stays in the frontier
+            return;
+        }
+        CircuitBreaker breaker = Webscraper.breakerFor(link.source());
+        if (!breaker.allowRequest()) {
+            fetchMetrics.recordRejected(); // Source is failing; deferred until its breaker lets requests through again
+            return;
+        }
+
+        String html = Webscraper.fetchBody(link.url(), deadlineNanos);
+        if (html == null) {
+            breaker.recordFailure(); // Errors and pages too slow for the deadline both count against the source
+            if (Webscraper.remainingNanos(deadlineNanos) <= 0) {
+                fetchMetrics.recordTimeout(startedAt);
+            } else {
+                System.err.println("Failed to fetch article: " + link.title() + ". Skipping...");
+                frontier.failed(link.url()); // Stays in the frontier for a later attempt
+                fetchMetrics.record(startedAt, false);
+            }
+            return;
+        }
+        breaker.recordSuccess();
+
+        gate.lock.readLock().lock();
+        try {
+            if (gate.closed) {
+                fetchMetrics.recordTimeout(startedAt); // Arrived after the run stopped accepting pages
+                return;
+            }
+            pages.put(new FetchedPage(link.title(), link.url(), html, link.source(), stored)); // Blocks when the parsers fall behind
+            parseMetrics.recordQueueDepth(pages.size());
+            fetchMetrics.record(startedAt, true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            gate.lock.readLock().unlock();
+        }
+    }
+
+    private void parseStage(BlockingQueue<FetchedPage> pages, BlockingQueue<ParsedArticle> articles,
+                            StageMetrics parseMetrics, StageMetrics persistMetrics, CrawlFrontier frontier) {
+        try {
+            while (true) {
+                FetchedPage page = pages.take();
+                if (page == END_OF_PAGES) return;
+
+                long startedAt = System.nanoTime();
+                boolean ok = false;
+                try {
+                    String content = page.source().extractContent(page.html(), page.url());
+                    if (content.isEmpty()) {
+                        System.err.println("Content missing for article: " + page.title() + ". Skipping...");
+                        frontier.completed(page.url()); // Nothing to store; refetching will not change that
+                    } else {
+                        String contentHash = Fingerprint.contentHash(content);
+                        StoredArticle stored = page.stored();
+                        boolean unchanged = stored != null && contentHash.equals(stored.contentHash());
+                        long simhash = SimHash.of(content);
+                        // New pages (and pages merged earlier) may be another outlet's copy of a stored story
+                        int duplicateOf = -1;
+                        if (!unchanged && (stored == null || stored.alias())) {
+                            duplicateOf = NearDuplicateIndex.findNearDuplicate(simhash);
+                        }
+                        // Unchanged articles keep their classification and duplicates share the original's;
+                        // only new or edited content is categorized
+                        Map<String, Integer> scores = unchanged || duplicateOf != -1
+                                ? null : categorizeArticle(content); // Scoring only; ids are assigned on persist
+                        articles.put(new ParsedArticle(page.title(), page.url(), content, contentHash, simhash,
+                                duplicateOf, stored, scores));
+                        persistMetrics.recordQueueDepth(articles.size());
+                        ok = true;
+                    }
+                } catch (RuntimeException e) {
+                    Webscraper.logError("An error occurred while parsing article: " + page.title(), e);
+                    frontier.completed(page.url());
+                } finally {
+                    parseMetrics.record(startedAt, ok);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Outcome of the articles persisted since the last batch write
+    private static final class PendingBatch {
+        final List<Integer> unchangedIds = new ArrayList<>();   // Only their fetch is recorded
+        final List<Integer> classifiedIds = new ArrayList<>();  // Classification rows queued on the writer
+        final List<String> classifiedUrls = new ArrayList<>();  // Completed once those rows are committed
+        final List<String> storedUrls = new ArrayList<>();      // Completed once the batch is written
+
+        void clear() {
+            unchangedIds.clear();
+            classifiedIds.clear();
+            classifiedUrls.clear();
+            storedUrls.clear();
+        }
+    }
+
+    private void persistStage(BlockingQueue<ParsedArticle> articles, StageMetrics persistMetrics, CrawlFrontier frontier) {
+        ClassificationWriter classificationWriter = new ClassificationWriter();
+        List<ParsedArticle> batch = new ArrayList<>(persistBatchSize);
+        PendingBatch pending = new PendingBatch();
+        try {
+            boolean finished = false;
+            while (!finished) {
+                batch.add(articles.take());
+                articles.drainTo(batch, persistBatchSize - 1);
+
+                for (ParsedArticle article : batch) {
+                    if (article == END_OF_ARTICLES) {
+                        finished = true;
+                        continue;
+                    }
+                    long startedAt = System.nanoTime();
+                    boolean ok = false;
+                    try {
+                        Persisted persisted = persist(article);
+                        int articleId = persisted.articleId();
+                        if (articleId != -1 && persisted.classify()) {
+                            classificationWriter.add(articleId, article.scores());
+                            pending.classifiedIds.add(articleId);
+                            pending.classifiedUrls.add(article.url());
+                            ok = true;
+                        } else if (articleId != -1) {
+                            pending.unchangedIds.add(articleId);
+                            pending.storedUrls.add(article.url());
+                            ok = true;
+                        } else {
+                            frontier.failed(article.url());
+                        }
+                    } catch (RuntimeException e) {
+                        // Keep draining: the fetchers and parsers block on a full queue if this stage stops
+                        Webscraper.logError("An error occurred while storing article: " + article.title(), e);
+                        frontier.failed(article.url());
+                    } finally {
+                        persistMetrics.record(startedAt, ok);
+                    }
+                }
+                flushBatch(classificationWriter, pending, frontier);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            flushBatch(classificationWriter, pending, frontier);
+        }
+    }
+
+    /**
+     * Writes one classification transaction per batch of articles and records the fetch of unchanged ones.
+     * If the classification write fails, the stored fingerprints of those articles are cleared and their links are
+     * retried, so the next fetch categorizes them again rather than skipping them as unchanged.
+     */
+    private static void flushBatch(ClassificationWriter classificationWriter, PendingBatch pending, CrawlFrontier frontier) {
+        try {
+            if (classificationWriter.flush() == ClassificationWriter.FAILED) {
+                DBConnection.clearContentHashes(pending.classifiedIds);
+                pending.classifiedUrls.forEach(frontier::failed);
+            } else {
+                pending.classifiedUrls.forEach(frontier::completed);
+            }
+            DBConnection.touchArticles(pending.unchangedIds, true); // Unchanged articles only record the fetch
+            pending.storedUrls.forEach(frontier::completed);
+        } catch (RuntimeException e) {
+            Webscraper.logError("An error occurred while writing a batch of articles", e);
+            DBConnection.clearContentHashes(pending.classifiedIds);
+            pending.classifiedUrls.forEach(frontier::failed);
+            pending.storedUrls.forEach(frontier::failed);
+        } finally {
+            pending.clear();
+        }
+    }
+
+    /**
+     * Stores a parsed article (article id -1 on failure): insert when new, update in place when it changed, and merge
+     * near-duplicates into the article they copy by recording the page as an alias of it.
+     */
+    private static Persisted persist(ParsedArticle article) {
+        StoredArticle stored = article.stored();
+        if (stored != null && !stored.alias()) {
+            if (article.scores() != null || !article.title().equals(stored.title())) {
+                saveChanges(stored.id(), article); // Content or headline changed (a new headline alone needs no recategorization)
+            }
+            return new Persisted(stored.id(), article.scores() != null);
+        }
+        if (stored != null && article.scores() == null && article.duplicateOf() == -1) {
+            DBConnection.saveAlias(article.url(), stored.id(), article.title(), article.contentHash()); // Unchanged duplicate page
+            return new Persisted(stored.id(), false);
+        }
+
+        // Check again here: an article stored earlier in this run may be the original
+        int duplicateOf = article.duplicateOf() != -1
+                ? article.duplicateOf() : NearDuplicateIndex.findNearDuplicate(article.simhash());
+        if (duplicateOf != -1) {
+            DBConnection.saveAlias(article.url(), duplicateOf, article.title(), article.contentHash());
+            return new Persisted(duplicateOf, false);
+        }
+        if (stored != null) {
+            DBConnection.deleteAlias(article.url()); // No longer a duplicate: the page becomes an article of its own
+        }
+
+        // One atomic upsert on the unique title hash / canonical URL keys instead of a lookup followed by an insert
+        SavedArticle saved = saveArticleToDB(article.title(), article.content(), article.url(), article.contentHash(),
+                article.simhash());
+        if (saved.articleId() != -1 && !saved.inserted()) {
+            saveChanges(saved.articleId(), article); // Same page, stored concurrently or before URLs were recorded: refresh it
+        }
+        return new Persisted(saved.articleId(), saved.articleId() != -1);
+    }
+
+    private static void saveChanges(int articleId, ParsedArticle article) {
+        DBConnection.updateArticleContent(articleId, article.title(), article.content(), article.url(),
+                article.contentHash(), article.simhash());
+    }
+
+    // Waits for the futures, but no longer than the deadline
+    private static void awaitUntil(List<Future<?>> futures, long deadlineNanos) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                long remaining = Webscraper.remainingNanos(deadlineNanos);
+                if (remaining == Long.MAX_VALUE) {
+                    future.get();
+                } else {
+                    future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                }
+            } catch (ExecutionException e) {
+                Webscraper.logError("A scrape pipeline stage failed", e);
+            } catch (TimeoutException e) {
+                return; // Deadline reached
+            }
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Webscraper.logError("A scrape pipeline stage failed", e);
+            }
+        }
+    }
+}
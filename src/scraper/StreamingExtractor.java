@@ -0,0 +1,69 @@
+package scraper;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Extracts the parts of a page the scraper needs while it is being parsed, instead of building the whole DOM first.
+ * Elements are handed over by jsoup's StreamParser as soon as they are closed; everything outside the wanted elements
+ * is removed from the tree right away, so only the open path and the wanted content stay in memory.
+ */
+public class StreamingExtractor {
+
+    /**
+     * Returns the text of every element with the given class, joined by spaces
+     * (the same text as {@code Jsoup.parse(html).select("." + cssClass).text()}).
+     */
+    public static String extractText(String html, String baseUri, String cssClass) {
+        List<String> texts = new ArrayList<>();
+        try (StreamParser streamer = new StreamParser(Parser.htmlParser()).parse(html, baseUri)) {
+            Iterator<Element> elements = streamer.iterator();
+            while (elements.hasNext()) {
+                Element element = elements.next(); // Emitted once the element and all its children are complete
+                if (hasAncestorWithClass(element, cssClass)) continue; // Part of wanted content that is still open
+                if (element.hasClass(cssClass)) {
+                    texts.add(element.text());
+                }
+                if (element.parent() != null) {
+                    element.remove(); // Done with this subtree: drop it from the tree
+                }
+            }
+        }
+        return String.join(" ", texts);
+    }
+
+    /**
+     * Returns the links matching a class as (text, url) pairs of the given source, the URL being the href prefixed with urlPrefix.
+     */
+    public static List<ScrapePipeline.Link> extractLinks(String html, String baseUri, String cssClass, String urlPrefix,
+                                                         NewsSource source) {
+        List<ScrapePipeline.Link> links = new ArrayList<>();
+        try (StreamParser streamer = new StreamParser(Parser.htmlParser()).parse(html, baseUri)) {
+            Iterator<Element> elements = streamer.iterator();
+            while (elements.hasNext()) {
+                Element element = elements.next();
+                if (hasAncestorWithClass(element, cssClass)) continue;
+                if (element.hasClass(cssClass)) {
+                    links.add(new ScrapePipeline.Link(element.text(), urlPrefix + element.attr("href"), source));
+                }
+                if (element.parent() != null) {
+                    element.remove();
+                }
+            }
+        }
+        return links;
+    }
+
+    // Whether the element sits inside a (still open) element with the class
+    private static boolean hasAncestorWithClass(Element element, String cssClass) {
+        for (Element parent = element.parent(); parent != null; parent = parent.parent()) {
+            if (parent.hasClass(cssClass)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,42 @@
+package scraper;
+
+/**
+ * Token-bucket rate limiter for one host.
+ * Tokens refill continuously at 'rate' per second up to 'capacity'; each request takes one token.
+ */
+public class TokenBucket {
+    private final double ratePerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param requestsPerSecond sustained rate
+     * @param burst             tokens available after an idle period (at least 1)
+     */
+    public TokenBucket(double requestsPerSecond, int burst) {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("requestsPerSecond must be positive");
+        }
+        this.ratePerNano = requestsPerSecond / 1e9;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is due
+     */
+    public synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+        lastRefill = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / ratePerNano));
+    }
+}
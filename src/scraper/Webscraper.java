@@ -1,19 +1,26 @@
 package scraper;
 
-import concurrency.ConcurrencyHandler;
 import db.*;
 import model.*;
 import org.jsoup.*;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.sql.*;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static db.DBConnection.*;
 import static db.UserManager.*;
@@ -23,7 +30,106 @@ import static model.User.*;
 
 public class Webscraper {
 
-    private static final ConcurrencyHandler concurrencyHandler = new ConcurrencyHandler(10); // Thread pool with 10 threads
+    // Fetches across all sources: at most 10 in flight, shared fairly between hosts within their rate limits
+    private static final FetchScheduler fetchScheduler = new FetchScheduler(10);
+
+    // Staged scraping pipeline: virtual-thread fetchers, CPU-sized parse stage, batching persistence stage
+    private static final ScrapePipeline pipeline = new ScrapePipeline(
+            fetchScheduler,                              // Polite per-host fetch scheduling
+            Runtime.getRuntime().availableProcessors(),  // Parse/categorize workers
+            64,                                          // Capacity of each queue between stages
+            25);                                         // Articles per persistence batch
+
+    // Incremental refresh keeps articles across sessions and only fetches new or changed ones;
+    // run with -Dscraper.refresh=full to restore delete-all and re-scrape on every login
+    private static final boolean incrementalRefresh = !"full".equalsIgnoreCase(System.getProperty("scraper.refresh"));
+
+    // Known articles fetched more recently than this are not fetched again
+    private static final long REFETCH_AFTER_MILLIS = 6 * 60 * 60 * 1000L;
+
+    // Articles not seen on the front page for this long are expired by the background job
+    public static final int ARTICLE_MAX_AGE_HOURS = 72;
+    public static final long ARTICLE_EXPIRY_INTERVAL_MINUTES = 60;
+
+    // Background ingestion cadence (incremental mode): every 15 minutes, +/-20%
+    public static final long INGESTION_INTERVAL_MINUTES = 15;
+    public static final double INGESTION_JITTER = 0.2;
+
+    // How long a login waits for the first refresh when the store is still empty
+    public static final long COLD_START_WAIT_SECONDS = 60;
+
+    public static boolean isIncrementalRefresh() {
+        return incrementalRefresh;
+    }
+
+    // The outlets ingested on every refresh
+    private static final List<NewsSource> sources = new CopyOnWriteArrayList<>(List.of(SelectorNewsSource.AL_JAZEERA));
+
+    // Persistent frontier of discovered links that still have to be fetched, and how many are taken per refresh
+    private static final CrawlFrontier frontier = new CrawlFrontier();
+    private static final int FRONTIER_BATCH = 500;
+
+    // Pages are parsed with a streaming parser that keeps only the wanted elements; -Dscraper.extraction=dom builds the full DOM instead
+    private static final boolean streamingExtraction = !"dom".equalsIgnoreCase(System.getProperty("scraper.extraction"));
+
+    // Every refresh must finish within this budget (-Dscraper.deadlineSeconds); articles not fetched by then are deferred
+    private static final long SCRAPE_DEADLINE_NANOS = TimeUnit.SECONDS.toNanos(Long.getLong("scraper.deadlineSeconds", 45));
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    // Per-source circuit breakers: 5 consecutive failures keep a source out for 2 minutes
+    private static final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private static final int BREAKER_FAILURE_THRESHOLD = 5;
+    private static final long BREAKER_OPEN_MILLIS = 2 * 60 * 1000L;
+
+    // Fetching: attempts per page and the exponential backoff window between them
+    private static final int FETCH_ATTEMPTS = 3;
+    private static final long BACKOFF_BASE_MILLIS = 500;
+    private static final long BACKOFF_MAX_MILLIS = 8_000;
+
+    // One shared HTTP client for all fetches: pooled keep-alive/HTTP/2 connections, gzip, at most 6 requests per host
+    private static final HttpTransport transport = new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(10), 6);
+
+    // On-disk cache of fetched pages used for conditional requests (-Dscraper.cacheDir to relocate)
+    private static final PageCache pageCache = new PageCache(Path.of(System.getProperty("scraper.cacheDir", "cache/pages")));
+
+    /**
+     * Drops cached pages of URLs that are neither stored (as an article or alias) nor waiting in the crawl frontier;
+     * the sources' front pages are kept. Nothing is pruned if the database cannot be read.
+     * @return the number of cache files deleted
+     */
+    public static int prunePageCache() {
+        Set<String> known = findKnownUrls();
+        if (known == null) return 0;
+        for (NewsSource source : sources) {
+            known.add(ArticleKeys.canonicalUrl(source.frontPageUrl()));
+        }
+        return pageCache.prune(url -> known.contains(ArticleKeys.canonicalUrl(url)));
+    }
+
+    // Adds an outlet to ingest (its name must be unique; it is stored with frontier entries)
+    public static void addSource(NewsSource source) {
+        sources.add(source);
+    }
+
+    public static List<NewsSource> getSources() {
+        return List.copyOf(sources);
+    }
+
+    // The circuit breaker guarding a source
+    static CircuitBreaker breakerFor(NewsSource source) {
+        return breakers.computeIfAbsent(source.name(), name -> new CircuitBreaker(BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_MILLIS));
+    }
+
+    static boolean isStreamingExtraction() {
+        return streamingExtraction;
+    }
+
+    // Stage metrics of the most recent scrape (throughput and queue depth per stage)
+    private static volatile List<ScrapePipeline.StageMetrics> lastPipelineMetrics = List.of();
+
+    public static List<ScrapePipeline.StageMetrics> getLastPipelineMetrics() {
+        return lastPipelineMetrics;
+    }
 
     /**
      * Scrapes articles based on user preferences.
@@ -32,62 +138,257 @@ public class Webscraper {
      * @param userId the user ID for personalized article scraping
      */
     public static void scrapeArticles(int userId) {
-        Map<String, Integer> userPreferences = UserManager.getUserPreferences(userId);
+        if (refreshArticles(true)) {
+            // Display article titles after processing (use of method abstraction)
+            displayTitles(userId);
+        }
+    }
 
+    /**
+     * Refreshes the article store from every news source without displaying anything.
+     * Used by the background IngestionService; progress goes to the ingestion log instead of the console.
+     * @return true if at least one front page was scraped and the discovered articles processed
+     */
+    public static boolean refreshArticles() {
+        return refreshArticles(false);
+    }
+
+    /**
+     * Refreshes the article store from every news source.
+     * @param console true on the foreground path (full-refresh login, cold start) to print progress for the user;
+     *                false to write it to the ingestion log
+     * @return true if at least one front page was scraped and the discovered articles processed
+     */
+    public static boolean refreshArticles(boolean console) {
         try {
-            // Connect to Al Jazeera News page and scrape titles and links
-            Document doc = fetchDocument("https://www.aljazeera.com/");
-            if (doc == null) {
+            // Fetch every source's front page (through the scheduler, so each host's rate limit applies) and collect links
+            long deadlineNanos = System.nanoTime() + SCRAPE_DEADLINE_NANOS; // Budget for the whole refresh
+            List<ScrapePipeline.Link> discovered = discoverLinks(deadlineNanos);
+            if (discovered == null) {
                 System.err.println("Failed to fetch the main page. Please check your network connection or the website's availability.");
-                return;
+                return false;
             }
 
-            Elements articles = doc.select(".article-trending__title-link");
-            List<CompletableFuture<Void>> tasks = new ArrayList<>();
-
-            // For each article, process it asynchronously (Concurrency: **Parallel Execution** with CompletableFuture)
-            for (Element article : articles) {
-                String title = article.text();
-                String url = "https://www.aljazeera.com" + article.attr("href");
-
-                // Submit a task for each article
-                tasks.add(CompletableFuture.runAsync(() -> processArticle(title, url), concurrencyHandler.getExecutorService()));
+            // Incremental refresh: skip articles that are stored and fresh, only mark them as still on the front page
+            Map<String, StoredArticle> stored = new HashMap<>();
+            List<ScrapePipeline.Link> links = discovered;
+            if (incrementalRefresh) {
+                stored.putAll(findArticlesByUrls(discovered.stream().map(ScrapePipeline.Link::url).toList()));
+                links = selectLinksToFetch(discovered, stored, console);
             }
 
-            // Wait for all tasks to complete
-            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
-            System.out.println("All articles processed.");
+            // Record the links in the crawl frontier, then take everything that is due (including leftovers of earlier runs)
+            Map<String, ScrapePipeline.Link> toFetch = new LinkedHashMap<>();
+            links.forEach(link -> toFetch.put(link.url(), link));
+            if (frontier.enqueue(links)) {
+                Map<String, NewsSource> sourcesByName = new HashMap<>();
+                sources.forEach(source -> sourcesByName.put(source.name(), source));
+                List<ScrapePipeline.Link> due = frontier.due(sourcesByName, FRONTIER_BATCH);
+                if (due != null) {
+                    List<String> leftovers = new ArrayList<>();
+                    for (ScrapePipeline.Link link : due) {
+                        if (toFetch.putIfAbsent(link.url(), link) == null) leftovers.add(link.url());
+                    }
+                    stored.putAll(findArticlesByUrls(leftovers));
+                }
+            }
 
-            // Display article titles after processing (use of method abstraction)
-            displayTitles(userId);
+            // Run the links through the fetch -> parse -> persist pipeline (Concurrency: **Pipelined Execution** with bounded queues)
+            // Articles that miss the deadline stay in the frontier; the refresh returns with what it has
+            List<ScrapePipeline.StageMetrics> metrics = pipeline.run(new ArrayList<>(toFetch.values()), stored, frontier, deadlineNanos);
+            frontier.commit(); // Processed links leave the frontier, failed ones are rescheduled
+            report(console, remainingNanos(deadlineNanos) > 0 ? "All articles processed." : "Scrape deadline reached; showing the articles processed so far.");
+            lastPipelineMetrics = metrics;
+            metrics.forEach(stage -> report(console, "  " + stage)); // Per-stage throughput and queue depth
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Service shutting down
+            return false;
         } catch (Exception e) {
             logError("An error occurred while scraping articles", e);
+            return false;
         }
     }
 
 
     /**
-     * Fetches a document from a URL with retry logic in case of failure.
-     * OOP principle: **Abstraction** - This method abstracts the process of fetching documents.
+     * Fetches the front page of every source concurrently and extracts their article links.
+     * Sources whose circuit breaker is open are skipped, and front pages not fetched by the deadline are ignored.
+     * @param deadlineNanos System.nanoTime() by which the refresh must finish
+     * @return the discovered links, or null if no front page could be fetched
+     */
+    private static List<ScrapePipeline.Link> discoverLinks(long deadlineNanos) throws InterruptedException {
+        List<ScrapePipeline.Link> discovered = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger reached = new AtomicInteger();
+        List<CompletableFuture<Void>> fetches = new ArrayList<>();
+        for (NewsSource source : sources) {
+            fetches.add(fetchScheduler.submit(source, () -> {
+                if (remainingNanos(deadlineNanos) <= 0) return; // Never got a slot before the deadline
+                CircuitBreaker breaker = breakerFor(source);
+                if (!breaker.allowRequest()) {
+                    System.err.println("Skipping " + source.name() + ": circuit breaker is " + breaker);
+                    return;
+                }
+                String frontPage = fetchBody(source.frontPageUrl(), deadlineNanos);
+                if (frontPage == null) {
+                    breaker.recordFailure();
+                    System.err.println("Failed to fetch the front page of " + source.name() + ". Skipping...");
+                    return;
+                }
+                breaker.recordSuccess();
+                reached.incrementAndGet();
+                discovered.addAll(source.extractLinks(frontPage));
+            }));
+        }
+        for (CompletableFuture<Void> fetch : fetches) {
+            try {
+                fetch.get(Math.max(0, remainingNanos(deadlineNanos)), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                logError("An error occurred while reading a front page", e);
+            } catch (TimeoutException e) {
+                System.err.println("A front page missed the scrape deadline. Skipping...");
+            }
+        }
+        synchronized (discovered) {
+            return reached.get() == 0 ? null : new ArrayList<>(discovered);
+        }
+    }
+
+    /**
+     * Returns the links that need fetching: new URLs, changed titles, and articles last fetched too long ago.
+     * The remaining known articles are only stamped as seen so the expiry job keeps them.
+     */
+    private static List<ScrapePipeline.Link> selectLinksToFetch(List<ScrapePipeline.Link> links, Map<String, StoredArticle> stored,
+                                                                boolean console) {
+        List<ScrapePipeline.Link> toFetch = new ArrayList<>();
+        List<Integer> seen = new ArrayList<>();
+        long refetchBefore = System.currentTimeMillis() - REFETCH_AFTER_MILLIS;
+        for (ScrapePipeline.Link link : links) {
+            StoredArticle article = stored.get(link.url());
+            boolean fresh = article != null && article.title().equals(link.title()) && article.contentHash() != null
+                    && article.fetchedAt() != null && article.fetchedAt().getTime() >= refetchBefore;
+            if (fresh) {
+                seen.add(article.id());
+            } else {
+                toFetch.add(link);
+            }
+        }
+        touchArticles(seen, false);
+        report(console, toFetch.size() + " new or changed articles to fetch, " + seen.size() + " up to date.");
+        return toFetch;
+    }
+
+    /**
+     * Returns the configured source serving a URL (matched by host), or the default source if none matches.
+     * @param url an article URL
+     * @return the source whose extraction rules apply to the page
+     */
+    static NewsSource sourceFor(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            for (NewsSource source : sources) {
+                if (source.host().equalsIgnoreCase(host)) return source;
+            }
+        } catch (IllegalArgumentException e) {
+            // Malformed URL: fall through to the default source
+        }
+        return SelectorNewsSource.AL_JAZEERA;
+    }
+
+    /**
+     * Fetches the raw HTML of a URL with retry logic, without parsing it.
+     * Used by the pipeline so that network waits and parsing run in separate stages.
+     * @param url the URL of the page to fetch
+     * @return the response body, or null if it fails
+     */
+    static String fetchBody(String url) {
+        return fetchBody(url, pageCache, NO_DEADLINE);
+    }
+
+    /**
+     * Fetches the raw HTML of a URL, giving up once the deadline (a System.nanoTime() value) has passed.
      * @param url the URL of the page to fetch
-     * @return the Document object from the fetched URL, or null if it fails
+     * @param deadlineNanos when to give up, or NO_DEADLINE
+     * @return the response body, or null if it fails or runs out of time
      */
-    private static Document fetchDocument(String url) {
-        int retries = 3;
-        while (retries > 0) {
+    static String fetchBody(String url, long deadlineNanos) {
+        return fetchBody(url, pageCache, deadlineNanos);
+    }
+
+    // Nanoseconds left before the deadline (Long.MAX_VALUE without one)
+    static long remainingNanos(long deadlineNanos) {
+        return deadlineNanos == NO_DEADLINE ? Long.MAX_VALUE : deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * Fetches a page through the given cache: the request carries the cached ETag/Last-Modified validators and a
+     * 304 Not Modified answer is served from the cached body. Failed attempts are retried with exponential backoff
+     * and full jitter; client errors other than 429 are not retried. Requests and backoff never run past the deadline.
+     * @param url the URL of the page to fetch
+     * @param cache the page cache to revalidate against and update
+     * @param deadlineNanos when to give up (a System.nanoTime() value), or NO_DEADLINE
+     * @return the response body, or null if it fails or runs out of time
+     */
+    static String fetchBody(String url, PageCache cache, long deadlineNanos) {
+        PageCache.Entry cached = cache.lookup(url);
+        for (int attempt = 1; attempt <= FETCH_ATTEMPTS; attempt++) {
+            long remaining = remainingNanos(deadlineNanos);
+            if (remaining <= 0) return null; // Out of budget
+            Duration timeout = Duration.ofNanos(remaining);
             try {
-                return Jsoup.connect(url).timeout(5000).get();
+                HttpTransport.Response response = cached == null
+                        ? transport.get(url, null, null, timeout)
+                        : transport.get(url, cached.etag(), cached.lastModified(), timeout);
+                int status = response.statusCode();
+                if (status == 304 && cached != null) {
+                    String body = cache.readBody(cached);
+                    if (body != null) return body; // Unchanged: reuse the cached copy
+                    cached = null; // Cached body unreadable: ask again without validators
+                    continue;
+                }
+                if (status >= 200 && status < 300) {
+                    String body = response.body();
+                    cache.store(url, body, response.etag(), response.lastModified());
+                    return body;
+                }
+                if (status >= 400 && status < 500 && status != 429) {
+                    System.err.println("Failed to fetch URL: " + url + " (HTTP " + status + ")");
+                    return null; // The request itself is wrong; retrying will not help
+                }
+                System.err.println("Failed to fetch URL: " + url + " (HTTP " + status + "). Retries left: " + (FETCH_ATTEMPTS - attempt));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (IllegalArgumentException e) {
+                logError("Malformed URL: " + url, e);
+                return null;
             } catch (IOException e) {
-                retries--;
-                System.err.println("Failed to fetch URL: " + url + ". Retries left: " + retries);
-                if (retries == 0) {
+                System.err.println("Failed to fetch URL: " + url + ". Retries left: " + (FETCH_ATTEMPTS - attempt));
+                if (attempt == FETCH_ATTEMPTS) {
                     logError("Failed to fetch document after retries: " + url, e);
                 }
             }
+            if (attempt < FETCH_ATTEMPTS && !backoff(attempt, deadlineNanos)) {
+                return null; // Interrupted or out of budget while waiting to retry
+            }
         }
         return null;
     }
 
+    // Sleeps for a random time up to base * 2^(attempt-1), capped; returns false if interrupted or the wait would pass the deadline
+    private static boolean backoff(int attempt, long deadlineNanos) {
+        long ceiling = Math.min(BACKOFF_MAX_MILLIS, BACKOFF_BASE_MILLIS << (attempt - 1));
+        long sleepMillis = ThreadLocalRandom.current().nextLong(ceiling + 1); // Full jitter spreads out retries from concurrent fetchers
+        if (TimeUnit.MILLISECONDS.toNanos(sleepMillis) >= remainingNanos(deadlineNanos)) return false;
+        try {
+            Thread.sleep(sleepMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     /**
      * Processes an individual article, scraping its content and saving it to the database.
      * OOP principle: **Single Responsibility Principle** (SRP) - The method has a single responsibility to handle article processing.
@@ -95,43 +396,119 @@ public class Webscraper {
      * @param url the URL of the article
      */
     public static void processArticle(String title, String url) {
+        ClassificationWriter classificationWriter = new ClassificationWriter();
+        processArticle(title, url, classificationWriter);
+        classificationWriter.flush();
+    }
+
+    /**
+     * Processes an individual article, queueing its category scores on a shared sink instead of writing them right away.
+     * The caller flushes the sink once a batch of articles has been processed.
+     * @param title the title of the article
+     * @param url the URL of the article
+     * @param classificationWriter the sink collecting category scores
+     */
+    public static void processArticle(String title, String url, ClassificationWriter classificationWriter) {
         try {
             // Fetch the article page
-            Document articlePage = fetchDocument(url);
+            String articlePage = fetchBody(url);
             if (articlePage == null) {
                 System.err.println("Failed to fetch article: " + title + ". Skipping...");
                 return;
             }
 
-            String content = articlePage.select(".wysiwyg").text();
+            String content = sourceFor(url).extractContent(articlePage, url);
             if (content.isEmpty()) {
                 System.err.println("Content missing for article: " + title + ". Skipping...");
                 return;
             }
 
+            // Unchanged article (same fingerprint as the stored copy): skip categorization and classification writes
+            String contentHash = Fingerprint.contentHash(content);
+            StoredArticle existing = findArticlesByUrls(List.of(url)).get(url);
+            if (existing == null) {
+                existing = findArticleByTitle(title);
+            }
+            if (existing != null && contentHash.equals(existing.contentHash())) {
+                if (existing.alias()) {
+                    saveAlias(url, existing.id(), title, contentHash); // Record the re-fetch of the duplicate page
+                }
+                touchArticles(List.of(existing.id()), true);
+                return;
+            }
+
+            // Another outlet's copy of a stored story: merge it into that article instead of storing it again
+            long simhash = SimHash.of(content);
+            if (existing == null || existing.alias()) {
+                int duplicateOf = NearDuplicateIndex.findNearDuplicate(simhash);
+                if (duplicateOf != -1) {
+                    saveAlias(url, duplicateOf, title, contentHash);
+                    touchArticles(List.of(duplicateOf), false);
+                    return;
+                }
+                if (existing != null) {
+                    deleteAlias(url); // No longer a duplicate: the page becomes an article of its own
+                    existing = null;
+                }
+            }
+
             // Save the article to the database (Object Persistence: **Saving Articles**)
-            int articleId = getArticleIdByTitle(title);
+            int articleId;
+            if (existing == null) {
+                // Atomic upsert keyed on title hash / canonical URL: returns the stored ID if a concurrent scrape won
+                SavedArticle saved = saveArticleToDB(title, content, url, contentHash, simhash);
+                articleId = saved.articleId();
+                if (articleId != -1 && !saved.inserted()) {
+                    updateArticleContent(articleId, title, content, url, contentHash, simhash);
+                }
+            } else {
+                articleId = existing.id();
+                updateArticleContent(articleId, title, content, url, contentHash, simhash); // Changed article: store the new text and fingerprint
+            }
             if (articleId == -1) {
-                articleId = saveArticleToDB(title, content); // Insert article if not already present
+                System.err.println("Failed to save article: " + title + ". Skipping...");
+                return; // A bad row would roll back the whole classification batch
             }
 
             // Categorize the article based on content (Abstraction: **Separate Logic for Categorization**)
-            Map<String, Integer> scores = categorizeArticle(articleId, content);
+            Map<String, Integer> scores = categorizeArticle(content);
 
-            // Save categorized scores to the database (Database Interaction: **Decouple Data Layer**)
-            saveArticletoDB2(articleId, scores);
+            // Queue categorized scores for the batched database write (Database Interaction: **Decouple Data Layer**)
+            classificationWriter.add(articleId, scores);
         } catch (Exception e) {
             logError("An error occurred while processing article: " + title, e);
         }
     }
 
+    // Progress of a refresh: printed for the user on the foreground path, logged quietly in the background
+    private static void report(boolean console, String line) {
+        if (console) {
+            System.out.println(line);
+        } else {
+            logInfo(line);
+        }
+    }
+
+    /**
+     * Logs progress of background work (refreshes, recommendation batches) to a file, keeping it off the console.
+     * @param message the line to log
+     */
+    static void logInfo(String message) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter("logs/ingestion.log", true))) {
+            writer.write(LocalDateTime.now() + " " + message);
+            writer.newLine();
+        } catch (IOException ioException) {
+            System.err.println("Failed to write to log file: " + ioException.getMessage());
+        }
+    }
+
     /**
      * Logs errors to a file for debugging and record-keeping.
      * OOP principle: **Separation of Concerns** - Handles error logging separately from the main business logic.
      * @param message the error message
      * @param e the exception to log
      */
-    private static void logError(String message, Exception e) {
+    static void logError(String message, Exception e) {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter("logs/error.log", true))) {
             writer.write(message + " - " + e.getMessage());
             writer.newLine();
@@ -0,0 +1,180 @@
+package scraper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runnable check of conditional fetching through the page cache against a local stub server (no network or database).
+ * Covers the 200 -> 304 revalidation path, the ETag and Last-Modified round-trips, the retry/backoff policy and
+ * pruning. Run with: java -cp out scraper.PageCacheCheck (exits with status 1 on the first failed check).
+ */
+public class PageCacheCheck {
+
+    // Request headers seen per path, and the current version of each conditional page
+    private static final Map<String, List<String>> validatorsSeen = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private static volatile int version = 1;
+
+    private static final String LAST_MODIFIED = "Wed, 01 Oct 2025 10:00:00 GMT";
+
+    public static void main(String[] args) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", PageCacheCheck::handle);
+        server.start();
+        Path directory = Files.createTempDirectory("page-cache-check");
+        try {
+            String base = "http://127.0.0.1:" + server.getAddress().getPort();
+            PageCache cache = new PageCache(directory);
+            checkRevalidation(cache, base);
+            checkLastModifiedOnly(cache, base);
+            checkRetries(cache, base);
+            checkPrune(cache, directory, base);
+            System.out.println("PageCacheCheck: all checks passed");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // 200 stores body and validators; the next fetch sends them back and a 304 is served from the cached body
+    private static void checkRevalidation(PageCache cache, String base) {
+        String url = base + "/etag";
+        String first = fetch(url, cache);
+        check(first.contains("version 1"), "first fetch returns the body");
+        PageCache.Entry entry = cache.lookup(url);
+        check(entry != null && "\"v1\"".equals(entry.etag()) && LAST_MODIFIED.equals(entry.lastModified()),
+                "200 response stores ETag and Last-Modified");
+
+        String second = fetch(url, cache);
+        check(second.equals(first), "304 response is served from the cached body");
+        check(validatorsSeen.get("/etag").get(1).equals("If-None-Match=\"v1\", If-Modified-Since=" + LAST_MODIFIED),
+                "revalidation sends both validators back");
+        check(requests.get("/etag").get() == 2, "revalidation costs one request");
+
+        version = 2;
+        String third = fetch(url, cache);
+        check(third.contains("version 2"), "changed page is fetched again");
+        check("\"v2\"".equals(cache.lookup(url).etag()), "new ETag replaces the old one");
+        pass("200 -> 304 revalidation");
+    }
+
+    // A server that only sends Last-Modified is revalidated with If-Modified-Since alone
+    private static void checkLastModifiedOnly(PageCache cache, String base) {
+        String url = base + "/last-modified";
+        String first = fetch(url, cache);
+        PageCache.Entry entry = cache.lookup(url);
+        check(entry != null && entry.etag() == null && LAST_MODIFIED.equals(entry.lastModified()),
+                "entry keeps Last-Modified without an ETag");
+        check(fetch(url, cache).equals(first), "304 on If-Modified-Since is served from the cache");
+        check(validatorsSeen.get("/last-modified").get(1).equals("If-None-Match=null, If-Modified-Since=" + LAST_MODIFIED),
+                "only If-Modified-Since is sent");
+        pass("Last-Modified round-trip");
+    }
+
+    // Server errors are retried with backoff, client errors are not, and a recovered server ends the retries
+    private static void checkRetries(PageCache cache, String base) {
+        long startedAt = System.nanoTime();
+        check(Webscraper.fetchBody(base + "/unavailable", cache, Webscraper.NO_DEADLINE) == null, "503 ends in a failed fetch");
+        check(requests.get("/unavailable").get() == 3, "503 is attempted three times");
+        check(Webscraper.fetchBody(base + "/missing", cache, Webscraper.NO_DEADLINE) == null, "404 ends in a failed fetch");
+        check(requests.get("/missing").get() == 1, "404 is not retried");
+        check("recovered".equals(Webscraper.fetchBody(base + "/recovering", cache, Webscraper.NO_DEADLINE)),
+                "a retry after 503 returns the body");
+        check(requests.get("/recovering").get() == 2, "retries stop after the first success");
+
+        long deadline = System.nanoTime() + Duration.ofMillis(1).toNanos();
+        check(Webscraper.fetchBody(base + "/unavailable", cache, deadline) == null, "an expired deadline gives up");
+        check(Duration.ofNanos(System.nanoTime() - startedAt).toSeconds() < 15, "backoff stays within its cap");
+        pass("retry and backoff");
+    }
+
+    // Entries of unwanted URLs go, and so do the bodies no remaining entry references
+    private static void checkPrune(PageCache cache, Path directory, String base) throws IOException {
+        String kept = base + "/etag";
+        int deleted = cache.prune(url -> url.equals(kept), Duration.ZERO);
+        check(cache.lookup(kept) != null, "kept URL is still cached");
+        check(cache.lookup(base + "/last-modified") == null, "pruned URL is gone");
+        check(deleted > 0, "pruning deleted files");
+        try (Stream<Path> bodies = Files.list(directory.resolve("bodies"))) {
+            check(bodies.count() == 1, "only the body of the kept entry remains");
+        }
+        check(cache.readBody(cache.lookup(kept)).contains("version 2"), "kept body is readable");
+        pass("prune");
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        int count = requests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        validatorsSeen.computeIfAbsent(path, key -> new CopyOnWriteArrayList<>())
+                .add("If-None-Match=" + ifNoneMatch + ", If-Modified-Since=" + ifModifiedSince);
+        switch (path) {
+            case "/etag" -> {
+                String etag = "\"v" + version + "\"";
+                exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+                exchange.getResponseHeaders().set("ETag", etag);
+                if (etag.equals(ifNoneMatch)) {
+                    respond(exchange, 304, null);
+                } else {
+                    respond(exchange, 200, "<html><body><div class=\"body\">version " + version + "</div></body></html>");
+                }
+            }
+            case "/last-modified" -> {
+                exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+                if (LAST_MODIFIED.equals(ifModifiedSince)) {
+                    respond(exchange, 304, null);
+                } else {
+                    respond(exchange, 200, "<html><body>dated page</body></html>");
+                }
+            }
+            case "/unavailable" -> respond(exchange, 503, "busy");
+            case "/recovering" -> respond(exchange, count == 1 ? 503 : 200, count == 1 ? "busy" : "recovered");
+            default -> respond(exchange, 404, "not found");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String fetch(String url, PageCache cache) {
+        String body = Webscraper.fetchBody(url, cache, Webscraper.NO_DEADLINE);
+        check(body != null, "fetch of " + url + " succeeds");
+        return body;
+    }
+
+    static void check(boolean condition, String description) {
+        if (!condition) {
+            System.err.println("FAILED: " + description);
+            System.exit(1);
+        }
+    }
+
+    static void pass(String name) {
+        System.out.println("ok - " + name);
+    }
+}
@@ -0,0 +1,224 @@
+package scraper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import db.DBConnection;
+import db.SchemaMigrations;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static scraper.PageCacheCheck.check;
+import static scraper.PageCacheCheck.pass;
+
+/**
+ * Runnable check of polite crawling against a local stub site served under two host names (127.0.0.1 and localhost),
+ * each with a listing page and article pages. Covers link extraction, round-robin fair share between the hosts in the
+ * FetchScheduler, the per-host token-bucket limits, and the crawl frontier's retry and drop after five failed
+ * attempts. The frontier part needs the configured MySQL database and is skipped when it is not reachable.
+ * Run with: java -cp out scraper.StubSiteCheck (exits with status 1 on the first failed check).
+ */
+public class StubSiteCheck {
+    private static final int BUSY_ARTICLES = 24; // Host with many articles and a generous limit
+    private static final int QUIET_ARTICLES = 4; // Host with few articles and a strict limit
+
+    private record Hit(String host, String path, long atNanos) {
+    }
+
+    private static final List<Hit> hits = new CopyOnWriteArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", StubSiteCheck::handle);
+        server.start();
+        try {
+            int port = server.getAddress().getPort();
+            String busyBase = "http://127.0.0.1:" + port, quietBase = "http://localhost:" + port;
+            SelectorNewsSource busy = new SelectorNewsSource("stub-busy", busyBase + "/listing", "stub-link", "stub-body",
+                    busyBase, 20.0, 2);
+            SelectorNewsSource quiet = new SelectorNewsSource("stub-quiet", quietBase + "/listing", "stub-link", "stub-body",
+                    quietBase, 5.0, 1);
+            PageCache cache = new PageCache(Files.createTempDirectory("stub-site-check"));
+
+            List<ScrapePipeline.Link> busyLinks = listing(busy, cache, BUSY_ARTICLES);
+            List<ScrapePipeline.Link> quietLinks = listing(quiet, cache, QUIET_ARTICLES);
+            checkFairShareAndRates(busy, quiet, busyLinks, quietLinks, cache);
+            checkFrontier(busy, cache);
+            System.out.println("StubSiteCheck: all checks passed");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // The listing page yields one absolute link per article
+    private static List<ScrapePipeline.Link> listing(SelectorNewsSource source, PageCache cache, int expected) {
+        String html = Webscraper.fetchBody(source.frontPageUrl(), cache, Webscraper.NO_DEADLINE);
+        check(html != null, "listing of " + source.name() + " is fetched");
+        List<ScrapePipeline.Link> links = source.extractLinks(html);
+        check(links.size() == expected, source.name() + " listing has " + expected + " links");
+        check(links.get(0).url().startsWith(source.urlPrefix() + "/article/"), "links are made absolute");
+        String content = source.extractContent(Webscraper.fetchBody(links.get(0).url(), cache, Webscraper.NO_DEADLINE),
+                links.get(0).url());
+        check(content.equals("Body of article 0"), "article body is extracted");
+        pass("listing and article pages of " + source.name());
+        return links;
+    }
+
+    /**
+     * Submits every busy-host fetch before any quiet-host fetch. Round robin must still interleave the quiet host
+     * (it finishes long before the busy one), and neither host may exceed its token-bucket rate.
+     */
+    private static void checkFairShareAndRates(SelectorNewsSource busy, SelectorNewsSource quiet,
+                                               List<ScrapePipeline.Link> busyLinks, List<ScrapePipeline.Link> quietLinks,
+                                               PageCache cache) throws Exception {
+        FetchScheduler scheduler = new FetchScheduler(2);
+        hits.clear();
+        List<String> finished = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Void>> fetches = new ArrayList<>();
+        for (ScrapePipeline.Link link : busyLinks) {
+            fetches.add(scheduler.submit(busy, () -> fetchArticle(link, cache, finished)));
+        }
+        for (ScrapePipeline.Link link : quietLinks) {
+            fetches.add(scheduler.submit(quiet, () -> fetchArticle(link, cache, finished)));
+        }
+        CompletableFuture.allOf(fetches.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        scheduler.shutdown();
+
+        check(finished.size() == BUSY_ARTICLES + QUIET_ARTICLES, "every fetch ran");
+        // Starved, the quiet host would only start once the busy queue had drained (index BUSY_ARTICLES and later)
+        int firstQuiet = finished.indexOf(quiet.name()), lastQuiet = finished.lastIndexOf(quiet.name());
+        check(firstQuiet <= 2, "quiet host gets its turn straight away (first quiet fetch at " + firstQuiet + ")");
+        check(lastQuiet < BUSY_ARTICLES, "quiet host finishes while the busy one is still queued (last quiet fetch at "
+                + lastQuiet + ")");
+        pass("round-robin fair share");
+
+        checkRate(busy, 20.0, 2);
+        checkRate(quiet, 5.0, 1);
+        pass("token-bucket limits");
+    }
+
+    // After the burst, requests to a host may not arrive faster than its rate (10% tolerance for timer jitter)
+    private static void checkRate(SelectorNewsSource source, double ratePerSecond, int burst) {
+        List<Long> times = new ArrayList<>();
+        for (Hit hit : hits) {
+            if (hit.host().equals(source.host()) && hit.path().startsWith("/article/")) times.add(hit.atNanos());
+        }
+        check(times.size() > burst, source.name() + " received its requests");
+        double seconds = (times.get(times.size() - 1) - times.get(0)) / 1e9;
+        double minimumSeconds = (times.size() - burst) / ratePerSecond;
+        check(seconds >= minimumSeconds * 0.9, String.format("%s stays within %.0f requests/s (%d requests in %.2f s)",
+                source.name(), ratePerSecond, times.size(), seconds));
+    }
+
+    private static void fetchArticle(ScrapePipeline.Link link, PageCache cache, List<String> finished) {
+        check(Webscraper.fetchBody(link.url(), cache, Webscraper.NO_DEADLINE) != null, "article " + link.url() + " is fetched");
+        finished.add(link.source().name());
+    }
+
+    // A failing link is rescheduled after each failed fetch and dropped after the fifth; a fetched one leaves at once
+    private static void checkFrontier(SelectorNewsSource source, PageCache cache) {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.isValid(2);
+        } catch (Exception e) {
+            System.out.println("skip - crawl frontier retry and drop (database unavailable: " + e.getMessage() + ")");
+            return;
+        }
+        SchemaMigrations.apply();
+        ScrapePipeline.Link good = new ScrapePipeline.Link("Good", source.urlPrefix() + "/article/1", source);
+        ScrapePipeline.Link flaky = new ScrapePipeline.Link("Flaky", source.urlPrefix() + "/flaky/1", source);
+        CrawlFrontier frontier = new CrawlFrontier();
+        try {
+            check(frontier.enqueue(List.of(good, flaky)), "links are recorded in the frontier");
+            for (int attempt = 1; attempt <= 5; attempt++) {
+                for (ScrapePipeline.Link link : attempt == 1 ? List.of(good, flaky) : List.of(flaky)) {
+                    if (Webscraper.fetchBody(link.url(), cache, Webscraper.NO_DEADLINE) != null) {
+                        frontier.completed(link.url());
+                    } else {
+                        frontier.failed(link.url());
+                    }
+                }
+                frontier.commit();
+                check(attempts(good.url()) == null, "fetched link leaves the frontier");
+                if (attempt < 5) {
+                    check(Integer.valueOf(attempt).equals(attempts(flaky.url())), "failed link is kept with " + attempt + " attempts");
+                    List<ScrapePipeline.Link> due = frontier.due(Map.of(source.name(), source), 500);
+                    check(due != null && due.stream().noneMatch(link -> link.url().equals(flaky.url())),
+                            "failed link is not due again before its retry delay");
+                }
+            }
+            check(attempts(flaky.url()) == null, "failed link is dropped after five attempts");
+            pass("crawl frontier retry and drop");
+        } finally {
+            deleteFrontierRows(source.urlPrefix());
+        }
+    }
+
+    // Attempts recorded for a frontier link, or null if it is not in the frontier
+    private static Integer attempts(String url) {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT attempts FROM crawl_frontier WHERE url = ?")) {
+            pstmt.setString(1, url);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteFrontierRows(String urlPrefix) {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM crawl_frontier WHERE url LIKE ?")) {
+            pstmt.setString(1, urlPrefix + "/%");
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        host = host == null ? "" : host.substring(0, host.lastIndexOf(':') < 0 ? host.length() : host.lastIndexOf(':'));
+        String path = exchange.getRequestURI().getPath();
+        hits.add(new Hit(host, path, System.nanoTime()));
+        if (path.equals("/listing")) {
+            int count = host.equals("localhost") ? QUIET_ARTICLES : BUSY_ARTICLES;
+            StringBuilder html = new StringBuilder("<html><body><ul>");
+            for (int i = 0; i < count; i++) {
+                html.append("<li><a class=\"stub-link\" href=\"/article/").append(i).append("\">Article ")
+                        .append(i).append("</a></li>");
+            }
+            respond(exchange, 200, html.append("</ul></body></html>").toString());
+        } else if (path.startsWith("/article/")) {
+            String id = path.substring("/article/".length());
+            respond(exchange, 200, "<html><body><h1>Article " + id + "</h1><div class=\"stub-body\"><p>Body of article "
+                    + id + "</p></div></body></html>");
+        } else if (path.startsWith("/flaky/")) {
+            respond(exchange, 503, "busy");
+        } else {
+            respond(exchange, 404, "not found");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}